@@ -0,0 +1,89 @@
+package com.autoflex.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limite de concorrência ajustado pela latência observada (gradiente, no estilo
+ * do Gradient2 da Netflix).
+ *
+ * Uma média longa da latência serve de referência "sem carga" e uma média curta
+ * mostra o momento atual. Quando a curta sobe acima da referência (fila se
+ * formando no banco), o limite cai na mesma proporção; com a latência estável e
+ * o limite em uso, ele cresce devagar. O limite nunca sai de [min, max].
+ */
+class AdaptiveLimit {
+
+    private static final double SHORT_ALPHA = 0.1;
+    private static final double LONG_ALPHA = 0.005;
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private double shortRtt;
+    private double longRtt;
+
+    AdaptiveLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = Math.max(minLimit, maxLimit);
+        this.limit = Math.max(minLimit, Math.min(this.maxLimit, initialLimit));
+    }
+
+    // Reserva uma vaga sem bloquear; false significa que a requisição deve ser recusada
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) return false;
+            if (inFlight.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    // Devolve uma vaga que não chegou a ser usada, sem registrar latência
+    void cancel() {
+        inFlight.decrementAndGet();
+    }
+
+    void release(long latencyNanos) {
+        int concurrent = inFlight.getAndDecrement();
+        onSample(latencyNanos, concurrent);
+    }
+
+    private synchronized void onSample(long latencyNanos, int concurrent) {
+        double rtt = Math.max(1, latencyNanos);
+        if (longRtt == 0) {
+            shortRtt = rtt;
+            longRtt = rtt;
+            return;
+        }
+        shortRtt += SHORT_ALPHA * (rtt - shortRtt);
+        longRtt += LONG_ALPHA * (rtt - longRtt);
+
+        // Depois de um período longo de lentidão a referência sobe junto; ao normalizar, desce mais rápido
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+
+        double current = limit;
+        // Limite ocioso não tem como provar que aguenta mais: só cresce se pelo menos metade está em uso
+        if (concurrent < current / 2 && shortRtt <= longRtt * TOLERANCE) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double queueSize = Math.sqrt(current);
+        double target = current * gradient + queueSize;
+        double next = current * (1 - SMOOTHING) + target * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,85 @@
+package com.autoflex.config;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import com.autoflex.config.AdmissionControlFilter.EndpointClass;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Registra o {@link AdmissionControlFilter}. Limites por classe em
+ * autoflex.admission.&lt;classe&gt;.initial-limit / min-limit / max-limit
+ * (classes: planning, catalog-read, stock-write).
+ *
+ * As três classes usam o mesmo pool Hikari, então nenhum limite passa do tamanho do
+ * pool que a classe usa: acima disso as requisições só esperariam por conexão. Baixas
+ * de estoque têm autoflex.admission.stock-write.reserved-connections conexões do
+ * primário só para elas; planejamento e leituras dividem o resto (ou o pool da
+ * réplica, quando ela está ligada) num orçamento comum.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "autoflex.admission", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControlConfig.class);
+
+    // Padrão do Hikari quando maximum-pool-size não é configurado
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            Environment environment,
+            MeterRegistry registry,
+            @Value("${autoflex.admission.retry-after:1s}") Duration retryAfter) {
+        int primaryPool = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class,
+                HIKARI_DEFAULT_POOL_SIZE);
+        int reserved = Math.min(primaryPool - 1, Math.max(0, environment.getProperty(
+                "autoflex.admission.stock-write.reserved-connections", Integer.class, Math.max(1, primaryPool / 5))));
+        boolean replica = environment.getProperty("autoflex.datasource.replica.enabled", Boolean.class, false);
+        int readPool = replica
+                ? environment.getProperty("autoflex.datasource.replica.hikari.maximum-pool-size", Integer.class,
+                        HIKARI_DEFAULT_POOL_SIZE)
+                : primaryPool - reserved;
+
+        Map<EndpointClass, AdaptiveLimit> limits = new EnumMap<>(EndpointClass.class);
+        limits.put(EndpointClass.PLANNING, limit(environment, "planning", 8, 2, 32, readPool));
+        limits.put(EndpointClass.CATALOG_READ, limit(environment, "catalog-read", 40, 8, 150, readPool));
+        limits.put(EndpointClass.STOCK_WRITE, limit(environment, "stock-write", 40, 10, 150, primaryPool));
+        log.info("Admissão: pool primário {} ({} reservadas para baixas de estoque), leituras até {} simultâneas",
+                primaryPool, reserved, readPool);
+
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(
+                new AdmissionControlFilter(limits, new Semaphore(readPool),
+                        EnumSet.of(EndpointClass.PLANNING, EndpointClass.CATALOG_READ),
+                        retryAfter.toSeconds(), registry));
+        // Antes do roteamento de réplica: requisição recusada não deve tocar em nada
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        registration.setAsyncSupported(true);
+        return registration;
+    }
+
+    // Valores configurados, limitados ao número de conexões que a classe pode de fato usar
+    private static AdaptiveLimit limit(Environment environment, String name, int initial, int min, int max,
+                                       int connections) {
+        String prefix = "autoflex.admission." + name + ".";
+        int cap = Math.max(1, connections);
+        return new AdaptiveLimit(
+                Math.min(cap, environment.getProperty(prefix + "initial-limit", Integer.class, initial)),
+                Math.min(cap, environment.getProperty(prefix + "min-limit", Integer.class, min)),
+                Math.min(cap, environment.getProperty(prefix + "max-limit", Integer.class, max)));
+    }
+}
@@ -0,0 +1,197 @@
+package com.autoflex.config;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Controle de admissão por classe de endpoint.
+ *
+ * Cada classe tem seu próprio {@link AdaptiveLimit}: quando o banco fica lento o
+ * planejamento perde vagas primeiro e é recusado na hora com 503 + Retry-After,
+ * em vez de prender threads do Tomcat, enquanto baixas de estoque continuam com
+ * as vagas delas. /health, actuator e preflight CORS não passam pelo limite.
+ * As classes de leitura também dividem um orçamento comum de conexões, para que
+ * juntas não ocupem as conexões reservadas às baixas de estoque.
+ *
+ * Métricas: autoflex.admission.rejected{class}, autoflex.admission.limit{class},
+ * autoflex.admission.inflight{class} e autoflex.admission.shared.available.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    public enum EndpointClass { PLANNING, CATALOG_READ, STOCK_WRITE }
+
+    private static final AntPathMatcher MATCHER = new AntPathMatcher();
+
+    private final Map<EndpointClass, AdaptiveLimit> limits;
+    private final Semaphore shared;
+    private final Set<EndpointClass> sharedClasses;
+    private final Map<EndpointClass, Counter> rejected = new EnumMap<>(EndpointClass.class);
+    private final String retryAfterSeconds;
+
+    /**
+     * @param shared        vagas somadas das classes em {@code sharedClasses}
+     * @param sharedClasses classes que, além do próprio limite, consomem de {@code shared}
+     */
+    public AdmissionControlFilter(Map<EndpointClass, AdaptiveLimit> limits, Semaphore shared,
+                                  Set<EndpointClass> sharedClasses, long retryAfterSeconds,
+                                  MeterRegistry registry) {
+        this.limits = new EnumMap<>(limits);
+        this.shared = shared;
+        this.sharedClasses = Set.copyOf(sharedClasses);
+        this.retryAfterSeconds = Long.toString(Math.max(1, retryAfterSeconds));
+        Gauge.builder("autoflex.admission.shared.available", shared, Semaphore::availablePermits)
+                .register(registry);
+        this.limits.forEach((endpointClass, limit) -> {
+            String tag = endpointClass.name().toLowerCase();
+            rejected.put(endpointClass, Counter.builder("autoflex.admission.rejected")
+                    .description("Requisições recusadas pelo controle de admissão")
+                    .tag("class", tag)
+                    .register(registry));
+            Gauge.builder("autoflex.admission.limit", limit, AdaptiveLimit::getLimit)
+                    .tag("class", tag)
+                    .register(registry);
+            Gauge.builder("autoflex.admission.inflight", limit, AdaptiveLimit::getInFlight)
+                    .tag("class", tag)
+                    .register(registry);
+        });
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        EndpointClass endpointClass = classify(request.getMethod(), pathOf(request));
+        AdaptiveLimit limit = endpointClass != null ? limits.get(endpointClass) : null;
+        if (limit == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        boolean usesShared = sharedClasses.contains(endpointClass);
+        if (!limit.tryAcquire()) {
+            reject(endpointClass, response);
+            return;
+        }
+        if (usesShared && !shared.tryAcquire()) {
+            // Recusa sem amostra de latência: a lentidão não é desta classe
+            limit.cancel();
+            reject(endpointClass, response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // Resposta assíncrona: a vaga só é liberada quando ela realmente termina
+                request.getAsyncContext().addListener(
+                        new ReleaseOnComplete(limit, usesShared ? shared : null, start));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                limit.release(System.nanoTime() - start);
+                if (usesShared) shared.release();
+            }
+        }
+    }
+
+    private void reject(EndpointClass endpointClass, HttpServletResponse response) throws IOException {
+        rejected.get(endpointClass).increment();
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", retryAfterSeconds);
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write("Servidor sobrecarregado, tente novamente em instantes");
+    }
+
+    // Filtro de admissão só na entrada; os dispatches assíncronos já estão contabilizados
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return true;
+    }
+
+    static EndpointClass classify(String method, String path) {
+        if ("OPTIONS".equals(method)) return null;
+        if (MATCHER.match("/production/**", path) || MATCHER.match("/dashboard/**", path)
+                || MATCHER.match("/products/*/capacity-history", path)
+                || MATCHER.match("/reactive/production/**", path)) {
+            return EndpointClass.PLANNING;
+        }
+        if ("PATCH".equals(method) && (MATCHER.match("/raw-materials/*/stock", path)
+                || MATCHER.match("/sites/*/stock/*", path))) {
+            return EndpointClass.STOCK_WRITE;
+        }
+        if (("GET".equals(method) || "HEAD".equals(method)) && (MATCHER.match("/products/**", path)
+                || MATCHER.match("/raw-materials/**", path) || MATCHER.match("/sites/**", path)
+                || MATCHER.match("/reactive/**", path))) {
+            return EndpointClass.CATALOG_READ;
+        }
+        return null;
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        String context = request.getContextPath();
+        return context != null && !context.isEmpty() && uri.startsWith(context)
+                ? uri.substring(context.length())
+                : uri;
+    }
+
+    private static final class ReleaseOnComplete implements AsyncListener {
+
+        private final AdaptiveLimit limit;
+        private final Semaphore shared;
+        private final long start;
+        private boolean released;
+
+        ReleaseOnComplete(AdaptiveLimit limit, Semaphore shared, long start) {
+            this.limit = limit;
+            this.shared = shared;
+            this.start = start;
+        }
+
+        private synchronized void release() {
+            if (released) return;
+            released = true;
+            limit.release(System.nanoTime() - start);
+            if (shared != null) shared.release();
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Novo ciclo assíncrono no mesmo request: continua valendo este listener
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.autoflex.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Conversores de resposta com suporte a fields=: JSON (padrão), CBOR
+ * (Accept: application/cbor) e Smile (Accept: application/x-jackson-smile).
+ * Os formatos binários usam a mesma configuração do ObjectMapper do Spring Boot.
+ */
+@Configuration
+public class ContentNegotiationConfig {
+
+    @Bean
+    public SparseFieldsetConverters.Json jsonConverter(ObjectMapper objectMapper) {
+        return new SparseFieldsetConverters.Json(objectMapper);
+    }
+
+    @Bean
+    public SparseFieldsetConverters.Cbor cborConverter(Jackson2ObjectMapperBuilder builder) {
+        return new SparseFieldsetConverters.Cbor(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public SparseFieldsetConverters.Smile smileConverter(Jackson2ObjectMapperBuilder builder) {
+        return new SparseFieldsetConverters.Smile(builder.factory(new SmileFactory()).build());
+    }
+}
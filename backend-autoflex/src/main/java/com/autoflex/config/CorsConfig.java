@@ -1,8 +1,10 @@
 package com.autoflex.config;
 
 
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
@@ -10,8 +12,10 @@ import org.springframework.web.filter.CorsFilter;
 @Configuration
 public class CorsConfig {
 
+    // Antes do controle de admissão e dos demais filtros: respostas 503 também levam
+    // os headers de CORS e o preflight não ocupa vaga de concorrência
     @Bean
-    public CorsFilter corsFilter() {
+    public FilterRegistrationBean<CorsFilter> corsFilter() {
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         CorsConfiguration config = new CorsConfiguration();
         
@@ -37,8 +41,13 @@ public class CorsConfig {
         config.addExposedHeader("Authorization");
         config.addExposedHeader("Content-Type");
         config.addExposedHeader("Content-Disposition");
+        config.addExposedHeader("ETag");
+        config.addExposedHeader("Location");
+        config.addExposedHeader("Retry-After");
         
         source.registerCorsConfiguration("/**", config);
-        return new CorsFilter(source);
+        FilterRegistrationBean<CorsFilter> registration = new FilterRegistrationBean<>(new CorsFilter(source));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1); // logo depois do CharacterEncodingFilter
+        return registration;
     }
 }
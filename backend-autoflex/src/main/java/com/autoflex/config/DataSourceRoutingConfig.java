@@ -0,0 +1,96 @@
+package com.autoflex.config;
+
+import java.time.Duration;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Roteamento leitura/escrita: ativado com autoflex.datasource.replica.enabled=true.
+ * O pool primário vem de spring.datasource.*, a réplica de autoflex.datasource.replica.*.
+ * O proxy lazy adia a escolha da conexão até o primeiro comando, quando a
+ * transação (e o flag read-only) já foi iniciada.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "autoflex.datasource.replica", name = "enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(DataSourceRoutingConfig.class);
+
+    // spring.datasource.hikari.* vale para o pool primário como no DataSource padrão do Boot
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("autoflex-primary");
+        return dataSource;
+    }
+
+    // Ajustes do pool da réplica, inclusive o tamanho, só em autoflex.datasource.replica.hikari.*
+    @Bean
+    @ConfigurationProperties("autoflex.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            @Value("${autoflex.datasource.replica.url}") String url,
+            @Value("${autoflex.datasource.replica.username}") String username,
+            @Value("${autoflex.datasource.replica.password}") String password) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("autoflex-replica");
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+            HikariDataSource replicaDataSource,
+            @Value("${autoflex.datasource.replica.max-lag:5s}") Duration maxLag,
+            @Value("${autoflex.datasource.replica.lag-check-interval:1s}") Duration checkInterval) {
+        return new ReplicaLagMonitor(replicaDataSource, maxLag, checkInterval);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 HikariDataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor,
+                                 @Value("${spring.jpa.open-in-view:true}") boolean openInView) {
+        if (openInView) {
+            // Com open-in-view a conexão fica presa à requisição inteira e o roteamento por transação se perde
+            log.warn("spring.jpa.open-in-view=true: defina como false para o roteamento para a réplica funcionar");
+        }
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(replicaLagMonitor);
+        routing.setTargetDataSources(Map.of(
+                ReplicaRoutingDataSource.Target.PRIMARY, primaryDataSource,
+                ReplicaRoutingDataSource.Target.REPLICA, replicaDataSource));
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+            @Value("${autoflex.datasource.replica.read-your-writes-window:${autoflex.datasource.replica.max-lag:5s}}")
+            Duration window) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(window));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,68 @@
+package com.autoflex.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.filter.TokenFilter;
+
+/**
+ * Filtro de tokens do Jackson para o parâmetro fields=.
+ *
+ * "id,code,product.name,materialDetails.rawMaterialId" vira uma árvore de nomes;
+ * o gerador só escreve as propriedades que estão na árvore (e o caminho até elas).
+ * Listas são transparentes: o filtro vale para cada elemento. "*" casa com
+ * qualquer nome, útil para mapas indexados por id (ex.: "*.product.name").
+ */
+final class FieldSetFilter extends TokenFilter {
+
+    private final Map<String, FieldSetFilter> children = new LinkedHashMap<>();
+    private boolean leaf;
+    private boolean root;
+
+    static FieldSetFilter parse(String fields) {
+        FieldSetFilter root = new FieldSetFilter();
+        root.root = true;
+        for (String path : fields.split(",")) {
+            String trimmed = path.trim();
+            if (trimmed.isEmpty()) continue;
+            FieldSetFilter node = root;
+            for (String segment : trimmed.split("\\.")) {
+                if (segment.isEmpty()) continue;
+                node = node.children.computeIfAbsent(segment, s -> new FieldSetFilter());
+            }
+            if (node != root) node.leaf = true;
+        }
+        return root;
+    }
+
+    boolean isEmpty() {
+        return children.isEmpty();
+    }
+
+    @Override
+    public TokenFilter includeProperty(String name) {
+        FieldSetFilter child = children.get(name);
+        if (child == null) child = children.get("*");
+        if (child == null) return null;
+        // Campo pedido por inteiro: inclui tudo abaixo dele sem continuar filtrando
+        return child.leaf ? TokenFilter.INCLUDE_ALL : child;
+    }
+
+    // Na raiz (e em cada elemento de uma lista na raiz) um filtro que não casa nada
+    // ainda escreve {} ou []: sem isso o corpo sairia vazio, que não é JSON válido
+    @Override
+    public boolean includeEmptyObject(boolean contentsFiltered) {
+        return root;
+    }
+
+    @Override
+    public boolean includeEmptyArray(boolean contentsFiltered) {
+        return root;
+    }
+
+    @Override
+    protected boolean _includeScalar() {
+        // Escalar só entra quando o caminho até ele foi pedido (tratado em includeProperty)
+        return false;
+    }
+}
@@ -0,0 +1,60 @@
+package com.autoflex.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+
+/**
+ * Caminho de leitura reativo (R2DBC), ativado com autoflex.reactive.enabled=true.
+ *
+ * Fica ao lado do JPA sem substituí-lo: a autoconfiguração de R2DBC do Boot está
+ * excluída na aplicação, porque o gerenciador de transação reativo dela faria o
+ * JpaTransactionManager sumir. Aqui não há transações, só consultas de leitura.
+ * A URL padrão é a do spring.datasource com o prefixo r2dbc.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "autoflex.reactive", name = "enabled", havingValue = "true")
+public class ReactiveDataConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool reactiveConnectionPool(
+            @Value("${autoflex.reactive.url:}") String url,
+            @Value("${spring.datasource.url}") String jdbcUrl,
+            @Value("${spring.datasource.username}") String username,
+            @Value("${spring.datasource.password}") String password,
+            @Value("${autoflex.reactive.max-pool-size:10}") int maxPoolSize,
+            @Value("${autoflex.reactive.max-idle-time:30m}") Duration maxIdleTime) {
+        String r2dbcUrl = url.isBlank() ? toR2dbcUrl(jdbcUrl) : url;
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(r2dbcUrl).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("autoflex-reactive")
+                .initialSize(Math.min(2, maxPoolSize))
+                .maxSize(maxPoolSize)
+                .maxIdleTime(maxIdleTime)
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(ConnectionPool reactiveConnectionPool) {
+        return DatabaseClient.create(reactiveConnectionPool);
+    }
+
+    // jdbc:postgresql://host:5432/db?reWriteBatchedInserts=true -> r2dbc:postgresql://host:5432/db
+    static String toR2dbcUrl(String jdbcUrl) {
+        String url = jdbcUrl.startsWith("jdbc:") ? "r2dbc:" + jdbcUrl.substring("jdbc:".length()) : jdbcUrl;
+        int query = url.indexOf('?');
+        return query >= 0 ? url.substring(0, query) : url;
+    }
+}
@@ -0,0 +1,53 @@
+package com.autoflex.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Threads próprias para escrever os streams NDJSON de /reactive/**.
+ *
+ * Sem WebFlux, o Spring MVC adapta o Flux: a thread do Tomcat é liberada, mas cada
+ * linha é escrita de forma bloqueante numa thread do executor assíncrono do MVC.
+ * Por padrão esse executor é o applicationTaskExecutor compartilhado; aqui ele é
+ * um pool dedicado e limitado, então um cliente lento prende no máximo uma destas
+ * threads e não as do restante da aplicação. Acima de threads + fila o stream é
+ * recusado, e um stream aberto por mais que o timeout é encerrado.
+ *
+ * Vale para todo processamento assíncrono do MVC; hoje só os endpoints reativos usam.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "autoflex.reactive", name = "enabled", havingValue = "true")
+public class ReactiveStreamingConfig implements WebMvcConfigurer, DisposableBean {
+
+    private final ThreadPoolTaskExecutor streamExecutor = new ThreadPoolTaskExecutor();
+    private final long timeoutMillis;
+
+    public ReactiveStreamingConfig(@Value("${autoflex.reactive.stream-threads:8}") int threads,
+                                   @Value("${autoflex.reactive.stream-queue-capacity:100}") int queueCapacity,
+                                   @Value("${autoflex.reactive.stream-timeout:60s}") Duration timeout) {
+        streamExecutor.setThreadNamePrefix("reactive-stream-");
+        streamExecutor.setCorePoolSize(threads);
+        streamExecutor.setMaxPoolSize(threads);
+        streamExecutor.setQueueCapacity(queueCapacity);
+        streamExecutor.initialize();
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamExecutor);
+        configurer.setDefaultTimeout(timeoutMillis);
+    }
+
+    @Override
+    public void destroy() {
+        streamExecutor.shutdown();
+    }
+}
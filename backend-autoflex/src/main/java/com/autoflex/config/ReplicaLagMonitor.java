@@ -0,0 +1,79 @@
+package com.autoflex.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Mede o atraso de replicação da réplica numa thread própria, a cada intervalo.
+ * As requisições só leem o último resultado: uma réplica fora do ar nunca
+ * segura uma leitura esperando o timeout de conexão. Até a primeira medição
+ * tudo vai para o primário. Contra um PostgreSQL que não está em recuperação
+ * (uma segunda instância local usada como réplica de teste) o atraso é sempre zero.
+ */
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private static final String LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000, 0)
+            END
+            """;
+
+    private final DataSource replica;
+    private final long maxLagMillis;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile boolean withinTolerance = false;
+
+    public ReplicaLagMonitor(DataSource replica, Duration maxLag, Duration checkInterval) {
+        this.replica = replica;
+        this.maxLagMillis = maxLag.toMillis();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isWithinTolerance() {
+        return withinTolerance;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void refresh() {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+            double lag = rs.next() ? rs.getDouble(1) : Double.MAX_VALUE;
+            boolean healthy = lag <= maxLagMillis;
+            if (healthy != withinTolerance) {
+                log.warn("Réplica {} (atraso {} ms, tolerância {} ms)",
+                        healthy ? "liberada para leitura" : "fora da tolerância", (long) lag, maxLagMillis);
+            }
+            withinTolerance = healthy;
+        } catch (Exception e) {
+            if (withinTolerance) {
+                log.warn("Réplica indisponível, leituras vão para o primário: {}", e.getMessage());
+            }
+            withinTolerance = false;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.autoflex.config;
+
+import java.util.function.Supplier;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Envia transações read-only para a réplica e todo o resto para o primário.
+ * Cai para o primário quando a réplica está atrasada além da tolerância ou
+ * quando a sessão acabou de escrever (read-your-writes).
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target { PRIMARY, REPLICA }
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = ThreadLocal.withInitial(() -> false);
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReplicaRoutingDataSource(ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+    }
+
+    public static void forcePrimary(boolean force) {
+        FORCE_PRIMARY.set(force);
+    }
+
+    public static boolean isPrimaryForced() {
+        return FORCE_PRIMARY.get();
+    }
+
+    public static void clear() {
+        FORCE_PRIMARY.remove();
+    }
+
+    /**
+     * Executa a leitura no primário e devolve o flag ao estado anterior, sem derrubar
+     * um forcePrimary de quem chamou. Para quem guarda o resultado além da requisição
+     * (caches): uma leitura atrasada da réplica ficaria no cache até a próxima alteração.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        boolean previous = FORCE_PRIMARY.get();
+        FORCE_PRIMARY.set(true);
+        try {
+            return action.get();
+        } finally {
+            if (!previous) FORCE_PRIMARY.remove();
+        }
+    }
+
+    public static void runOnPrimary(Runnable action) {
+        onPrimary(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !FORCE_PRIMARY.get()
+                && lagMonitor.isWithinTolerance()) {
+            return Target.REPLICA;
+        }
+        return Target.PRIMARY;
+    }
+}
@@ -0,0 +1,10 @@
+package com.autoflex.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Habilita as tarefas periódicas (gravação e limpeza do histórico de estoque)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,48 @@
+package com.autoflex.config;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Marca o corpo para escrita parcial quando a requisição traz fields=
+ * (ex.: GET /raw-materials?fields=id,code,quantity). Só age quando o conversor
+ * escolhido é um dos {@link SparseFieldsetConverters}; textos de erro e outros
+ * tipos passam intactos.
+ */
+@ControllerAdvice
+public class SparseFieldsetAdvice implements ResponseBodyAdvice<Object> {
+
+    static final String PARAMETER = "fields";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return SparseFieldsetConverters.Capable.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        // O mesmo recurso sai em JSON, CBOR ou Smile conforme o Accept: caches precisam separar as variantes
+        if (!response.getHeaders().getVary().contains(HttpHeaders.ACCEPT)) {
+            response.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        if (body == null || body instanceof SparseFieldsetValue
+                || !(request instanceof ServletServerHttpRequest servletRequest)) {
+            return body;
+        }
+        String fields = servletRequest.getServletRequest().getParameter(PARAMETER);
+        if (fields == null || fields.isBlank()) {
+            return body;
+        }
+        FieldSetFilter filter = FieldSetFilter.parse(fields);
+        return filter.isEmpty() ? body : new SparseFieldsetValue(body, filter);
+    }
+}
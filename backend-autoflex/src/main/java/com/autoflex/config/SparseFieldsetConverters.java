@@ -0,0 +1,94 @@
+package com.autoflex.config;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.filter.FilteringGeneratorDelegate;
+import com.fasterxml.jackson.core.filter.TokenFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Conversores Jackson (JSON, CBOR e Smile) que aplicam o fields= durante a
+ * serialização: o gerador é envolvido por um {@link FilteringGeneratorDelegate},
+ * então campos descartados nunca são escritos e não há árvore intermediária.
+ *
+ * Cada um estende o conversor padrão do Spring do mesmo formato, para substituí-lo
+ * na mesma posição da lista (texto simples continua antes do JSON).
+ */
+public final class SparseFieldsetConverters {
+
+    // Marca os conversores que entendem SparseFieldsetValue
+    interface Capable {}
+
+    private SparseFieldsetConverters() {}
+
+    public static class Json extends MappingJackson2HttpMessageConverter implements Capable {
+
+        public Json(ObjectMapper objectMapper) {
+            super(objectMapper);
+        }
+
+        @Override
+        protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage)
+                throws IOException {
+            if (!writeSparse(getObjectMapper(), object, outputMessage)) {
+                super.writeInternal(object, type, outputMessage);
+            }
+        }
+    }
+
+    public static class Cbor extends MappingJackson2CborHttpMessageConverter implements Capable {
+
+        public Cbor(ObjectMapper objectMapper) {
+            super(objectMapper);
+        }
+
+        @Override
+        protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage)
+                throws IOException {
+            if (!writeSparse(getObjectMapper(), object, outputMessage)) {
+                super.writeInternal(object, type, outputMessage);
+            }
+        }
+    }
+
+    public static class Smile extends MappingJackson2SmileHttpMessageConverter implements Capable {
+
+        public Smile(ObjectMapper objectMapper) {
+            super(objectMapper);
+        }
+
+        @Override
+        protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage)
+                throws IOException {
+            if (!writeSparse(getObjectMapper(), object, outputMessage)) {
+                super.writeInternal(object, type, outputMessage);
+            }
+        }
+    }
+
+    // false = corpo comum, fica com a escrita padrão do Jackson
+    private static boolean writeSparse(ObjectMapper objectMapper, Object object, HttpOutputMessage outputMessage)
+            throws IOException {
+        if (!(object instanceof SparseFieldsetValue sparse)) {
+            return false;
+        }
+        OutputStream body = StreamUtils.nonClosing(outputMessage.getBody());
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(body, JsonEncoding.UTF8);
+        try (JsonGenerator filtered = new FilteringGeneratorDelegate(generator, sparse.filter(),
+                TokenFilter.Inclusion.INCLUDE_ALL_AND_PATH, true)) {
+            objectMapper.writeValue(filtered, sparse.value());
+        }
+        return true;
+    }
+}
@@ -0,0 +1,4 @@
+package com.autoflex.config;
+
+// Corpo da resposta marcado para ser escrito só com os campos pedidos em fields=
+record SparseFieldsetValue(Object value, FieldSetFilter filter) {}
@@ -0,0 +1,89 @@
+package com.autoflex.controller;
+
+import com.autoflex.service.CatalogVersion;
+import com.autoflex.service.DashboardService;
+import com.autoflex.service.SingleFlight;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/dashboard")
+@CrossOrigin(origins = "http://localhost:3000")
+public class DashboardController {
+
+    // Formatos dos conversores da aplicação, na ordem de preferência do Spring
+    private static final List<MediaType> VARIANTS = List.of(
+            MediaType.APPLICATION_JSON,
+            MediaType.APPLICATION_CBOR,
+            new MediaType("application", "x-jackson-smile"));
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    // GET /dashboard/summary - ETag = instância + versão do catálogo + formato + fields=;
+    // com If-None-Match igual responde 304 sem corpo
+    @GetMapping("/summary")
+    public ResponseEntity<Map<String, Object>> getSummary(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestParam(value = "fields", required = false) String fields) {
+        Map<String, Object> summary = singleFlight.execute("dashboard-summary", "dashboard-summary",
+                dashboardService::getSummary);
+        return ResponseEntity.ok()
+                .eTag(eTag(summary.get("catalogVersion"), accept, fields))
+                .body(summary);
+    }
+
+    // Cada representação (JSON, CBOR, Smile, com ou sem fields=) tem sua própria tag
+    private String eTag(Object version, String accept, String fields) {
+        StringBuilder tag = new StringBuilder("\"catalog-")
+                .append(catalogVersion.instanceId()).append('-')
+                .append(version).append('-')
+                .append(negotiated(accept).getSubtype());
+        if (fields != null && !fields.isBlank()) {
+            tag.append("-f").append(Integer.toHexString(fields.trim().hashCode()));
+        }
+        return tag.append('"').toString();
+    }
+
+    // O formato que a negociação escolhe: maior q, depois o tipo mais específico, depois a ordem de VARIANTS
+    private static MediaType negotiated(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return VARIANTS.get(0);
+        }
+        List<MediaType> acceptable;
+        try {
+            acceptable = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return VARIANTS.get(0);
+        }
+        MediaType chosen = VARIANTS.get(0);
+        double bestQuality = -1;
+        int bestSpecificity = -1;
+        for (MediaType candidate : acceptable) {
+            double quality = candidate.getQualityValue();
+            int specificity = candidate.isWildcardType() ? 0 : candidate.isWildcardSubtype() ? 1 : 2;
+            for (MediaType variant : VARIANTS) {
+                if (!candidate.includes(variant)) continue;
+                if (quality > bestQuality || (quality == bestQuality && specificity > bestSpecificity)) {
+                    chosen = variant;
+                    bestQuality = quality;
+                    bestSpecificity = specificity;
+                }
+                break;
+            }
+        }
+        return chosen;
+    }
+}
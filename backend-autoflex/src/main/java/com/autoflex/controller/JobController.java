@@ -0,0 +1,42 @@
+package com.autoflex.controller;
+
+import com.autoflex.model.Job;
+import com.autoflex.service.JobService;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.net.URI;
+
+@RestController
+@RequestMapping("/jobs")
+@CrossOrigin(origins = "http://localhost:3000")
+public class JobController {
+
+    @Autowired
+    private JobService jobService;
+
+    // POST /jobs - {"type": "production-suggestions", "payload": {...}, "maxAttempts": 3}
+    // Responde 202 na hora; o andamento é acompanhado em GET /jobs/{id}
+    @PostMapping
+    public ResponseEntity<?> enqueue(@RequestBody JsonNode request) {
+        try {
+            Integer maxAttempts = request.hasNonNull("maxAttempts") ? request.get("maxAttempts").asInt() : null;
+            Job job = jobService.enqueue(request.path("type").asText(null), request.get("payload"), maxAttempts);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .location(URI.create("/jobs/" + job.getId()))
+                    .body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // GET /jobs/{id}
+    @GetMapping("/{id}")
+    public ResponseEntity<Job> getById(@PathVariable Long id) {
+        return jobService.getById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -6,9 +6,14 @@ import com.autoflex.model.ProductMaterial;
 import com.autoflex.repository.ProductRepository;
 import com.autoflex.repository.RawMaterialRepository;
 import com.autoflex.repository.ProductMaterialRepository;
+import com.autoflex.service.CatalogSearchService;
+import com.autoflex.service.ProductMaterialService;
+import com.autoflex.service.ProductService;
+import com.autoflex.service.StockHistoryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -26,10 +31,23 @@ public class ProductController {
     @Autowired
     private ProductMaterialRepository productMaterialRepo;
 
+    @Autowired
+    private CatalogSearchService searchService;
+
+    // Leituras passam pelos serviços read-only (podem ir para a réplica)
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductMaterialService productMaterialService;
+
+    @Autowired
+    private StockHistoryService stockHistoryService;
+
     // GET /products - Retorna Map para evitar recursividade
     @GetMapping
     public List<Map<String, Object>> getAll() {
-        return productRepo.findAll().stream()
+        return productService.getAll().stream()
                 .map(p -> {
                     Map<String, Object> map = new HashMap<>();
                     map.put("id", p.getId());
@@ -41,14 +59,39 @@ public class ProductController {
                 .collect(Collectors.toList());
     }
 
+    // GET /products/search?q=para&page=0&size=20 - prefixo e tolerância a erros em código/nome
+    @GetMapping("/search")
+    public Map<String, Object> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return searchService.searchProducts(q, page, size);
+    }
+
     // GET /products/{id}
     @GetMapping("/{id}")
     public ResponseEntity<Product> getById(@PathVariable Long id) {
-        return productRepo.findById(id)
+        return productService.getById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // GET /products/{id}/capacity-history - histórico da quantidade produzível com o estoque da época
+    @GetMapping("/{id}/capacity-history")
+    public ResponseEntity<?> getCapacityHistory(
+            @PathVariable Long id,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(required = false) String resolution) {
+        if (productService.getById(id).isEmpty()) return ResponseEntity.notFound().build();
+        try {
+            return ResponseEntity.ok(stockHistoryService.getHistory(
+                    StockHistoryService.SeriesType.CAPACITY, id, from, to, resolution));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     // POST /products
     @PostMapping
     public Product create(@RequestBody Product product) {
@@ -126,11 +169,11 @@ public class ProductController {
     // GET /products/{id}/materials
 @GetMapping("/{id}/materials")
 public ResponseEntity<List<ProductMaterial>> getMaterials(@PathVariable Long id) {
-    if (!productRepo.existsById(id)) {
+    try {
+        List<ProductMaterial> materials = productMaterialService.getMaterialsByProduct(id);
+        return ResponseEntity.ok(materials);
+    } catch (RuntimeException e) {
         return ResponseEntity.notFound().build();
     }
-    
-    List<ProductMaterial> materials = productMaterialRepo.findByProductId(id);
-    return ResponseEntity.ok(materials);
 }
 }
\ No newline at end of file
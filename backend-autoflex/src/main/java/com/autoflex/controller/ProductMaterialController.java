@@ -6,9 +6,12 @@ import com.autoflex.model.ProductMaterial;
 import com.autoflex.repository.ProductRepository;
 import com.autoflex.repository.RawMaterialRepository;
 import com.autoflex.repository.ProductMaterialRepository;
+import com.autoflex.service.NotFoundException;
+import com.autoflex.service.ProductMaterialService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -25,6 +28,9 @@ public class ProductMaterialController {
     @Autowired
     private ProductMaterialRepository productMaterialRepository;
 
+    @Autowired
+    private ProductMaterialService productMaterialService;
+
     // Adicionar ou atualizar associação
     @PostMapping
     public ResponseEntity<?> addOrUpdateMaterial(
@@ -52,6 +58,21 @@ public class ProductMaterialController {
         return ResponseEntity.status(201).body(association);
     }
 
+    // PUT /products/{productId}/materials - substitui a BOM inteira em uma única chamada
+    @PutMapping
+    public ResponseEntity<?> replaceMaterials(
+            @PathVariable Long productId,
+            @RequestBody List<ProductMaterialService.MaterialLine> lines
+    ) {
+        try {
+            return ResponseEntity.ok(productMaterialService.replaceMaterials(productId, lines));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (NotFoundException e) {
+            return ResponseEntity.status(404).body(e.getMessage());
+        }
+    }
+
     // Remover associação
     @DeleteMapping("/{rawMaterialId}")
     public ResponseEntity<?> removeMaterial(
@@ -72,11 +93,10 @@ public class ProductMaterialController {
     // Listar associações de um produto
     @GetMapping
     public ResponseEntity<?> listMaterials(@PathVariable Long productId) {
-        Optional<Product> productOpt = productRepository.findById(productId);
-        if (productOpt.isEmpty()) {
+        try {
+            return ResponseEntity.ok(productMaterialService.getMaterialsByProduct(productId));
+        } catch (RuntimeException e) {
             return ResponseEntity.status(404).body("Produto não encontrado");
         }
-
-        return ResponseEntity.ok(productMaterialRepository.findByProductId(productId));
     }
 }
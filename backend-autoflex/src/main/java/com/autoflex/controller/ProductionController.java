@@ -1,16 +1,14 @@
 package com.autoflex.controller;
 
-import com.autoflex.model.Product;
-import com.autoflex.model.RawMaterial;
-import com.autoflex.model.ProductMaterial;
-import com.autoflex.repository.ProductRepository;
-import com.autoflex.repository.RawMaterialRepository;
-import com.autoflex.repository.ProductMaterialRepository;
+import com.autoflex.service.BottleneckService;
+import com.autoflex.service.ProductionService;
+import com.autoflex.service.ProductionService.SuggestionSort;
+import com.autoflex.service.SingleFlight;
+import com.autoflex.service.SiteStockService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.math.BigDecimal;
 
 @RestController
 @RequestMapping("/production")
@@ -18,156 +16,76 @@ import java.math.BigDecimal;
 public class ProductionController {
 
     @Autowired
-    private ProductRepository productRepo;
+    private ProductionService productionService;
 
     @Autowired
-    private RawMaterialRepository rawMaterialRepo;
+    private BottleneckService bottleneckService;
 
     @Autowired
-    private ProductMaterialRepository productMaterialRepo;
+    private SiteStockService siteStockService;
 
+    // Dashboards que chegam juntos compartilham o mesmo cálculo em andamento
+    @Autowired
+    private SingleFlight singleFlight;
+
+    // GET /production/suggestions - ordenado por maior valor total
+    // ?siteId=2 usa o estoque de uma planta; ?allSites=true soma o estoque de todas as plantas
+    // ?sort=margin ordena pela margem unitária, ?sort=profit pelo lucro total (valor - custo de material)
     @GetMapping("/suggestions")
-    public List<Map<String, Object>> getProductionSuggestions() {
-        List<Product> products = productRepo.findAll();
-        List<RawMaterial> rawMaterials = rawMaterialRepo.findAll();
-        List<ProductMaterial> productMaterials = productMaterialRepo.findAll();
-        
-        Map<Long, Integer> stockMap = rawMaterials.stream()
-                .collect(Collectors.toMap(
-                        RawMaterial::getId,
-                        RawMaterial::getQuantity
-                ));
-        
-        List<Map<String, Object>> suggestions = new ArrayList<>();
-        
-        for (Product product : products) {
-            List<ProductMaterial> materials = productMaterials.stream()
-                    .filter(pm -> pm.getProduct().getId().equals(product.getId()))
-                    .collect(Collectors.toList());
-            
-            if (materials.isEmpty()) continue;
-            
-            // Calcular quantas unidades podem ser produzidas
-            int maxQuantity = Integer.MAX_VALUE;
-            boolean canProduce = true;
-            
-            for (ProductMaterial pm : materials) {
-                Long materialId = pm.getRawMaterial().getId();
-                Integer required = pm.getRequiredQuantity();
-                Integer available = stockMap.get(materialId);
-                
-                if (available == null || available < required) {
-                    canProduce = false;
-                    break;
-                }
-                
-                int possible = available / required;
-                if (possible < maxQuantity) {
-                    maxQuantity = possible;
-                }
-            }
-            
-            if (canProduce && maxQuantity > 0 && maxQuantity < Integer.MAX_VALUE) {
-                Map<String, Object> suggestion = new HashMap<>();
-                
-                // Converter produto para Map para evitar problemas de serialização
-                Map<String, Object> productMap = new HashMap<>();
-                productMap.put("id", product.getId());
-                productMap.put("code", product.getCode());
-                productMap.put("name", product.getName());
-                productMap.put("value", product.getValue());
-                
-                suggestion.put("product", productMap);
-                suggestion.put("maxQuantity", maxQuantity);
-                
-                
-                BigDecimal totalValue = product.getValue().multiply(BigDecimal.valueOf(maxQuantity));
-                suggestion.put("totalValue", totalValue);
-                
-                // Adicionar detalhes das matérias-primas
-                List<Map<String, Object>> materialDetails = materials.stream()
-                        .map(pm -> {
-                            Map<String, Object> detail = new HashMap<>();
-                            detail.put("rawMaterialId", pm.getRawMaterial().getId());
-                            detail.put("rawMaterialName", pm.getRawMaterial().getName());
-                            detail.put("requiredQuantity", pm.getRequiredQuantity());
-                            detail.put("available", stockMap.get(pm.getRawMaterial().getId()));
-                            return detail;
-                        })
-                        .collect(Collectors.toList());
-                
-                suggestion.put("materialDetails", materialDetails);
-                suggestions.add(suggestion);
+    public ResponseEntity<?> getProductionSuggestions(
+            @RequestParam(required = false) Long siteId,
+            @RequestParam(defaultValue = "false") boolean allSites,
+            @RequestParam(required = false) String sort) {
+        SuggestionSort order;
+        try {
+            order = SuggestionSort.from(sort);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        if (siteId != null) {
+            if (!siteStockService.siteExists(siteId)) {
+                return ResponseEntity.status(404).body("Planta não encontrada com ID: " + siteId);
             }
+            return ResponseEntity.ok(singleFlight.execute("suggestions-site", "suggestions:site:" + siteId + ":" + order,
+                    () -> productionService.getSuggestionsForSite(siteId, order)));
         }
-        
-        // CORREÇÃO: Ordenar por maior valor total (BigDecimal)
-        suggestions.sort((a, b) -> {
-            BigDecimal valueA = (BigDecimal) a.get("totalValue");
-            BigDecimal valueB = (BigDecimal) b.get("totalValue");
-            return valueB.compareTo(valueA); // Ordem decrescente
-        });
-        
-        return suggestions;
+        if (allSites) {
+            return ResponseEntity.ok(singleFlight.execute("suggestions-all-sites", "suggestions:all-sites:" + order,
+                    () -> productionService.getSuggestionsAcrossSites(order)));
+        }
+        return ResponseEntity.ok(singleFlight.execute("suggestions", "suggestions:" + order,
+                () -> productionService.getSuggestions(order)));
     }
-    
+
+    // GET /production/sites/suggestions - uma lista de sugestões por planta, calculadas em paralelo
+    @GetMapping("/sites/suggestions")
+    public ResponseEntity<?> getSuggestionsBySite(@RequestParam(required = false) String sort) {
+        SuggestionSort order;
+        try {
+            order = SuggestionSort.from(sort);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        return ResponseEntity.ok(singleFlight.execute("suggestions-by-site", "suggestions:by-site:" + order,
+                () -> productionService.getSuggestionsBySite(order)));
+    }
+
+    // GET /production/bottlenecks - matérias-primas que travam a produção, por valor bloqueado
+    @GetMapping("/bottlenecks")
+    public Map<String, Object> getBottlenecks() {
+        return singleFlight.execute("bottlenecks", "bottlenecks", bottleneckService::getBottlenecks);
+    }
+
     // Opcional: Endpoint para simular produção
     @PostMapping("/simulate")
-    public Map<String, Object> simulateProduction(@RequestBody Map<String, Object> request) {
+    public ResponseEntity<?> simulateProduction(@RequestBody Map<String, Object> request) {
         Long productId = Long.valueOf(request.get("productId").toString());
         Integer quantity = Integer.valueOf(request.get("quantity").toString());
-        
-        Optional<Product> productOpt = productRepo.findById(productId);
-        List<ProductMaterial> materials = productMaterialRepo.findByProductId(productId);
-        List<RawMaterial> allMaterials = rawMaterialRepo.findAll();
-        
-        Map<Long, Integer> stockMap = allMaterials.stream()
-                .collect(Collectors.toMap(
-                        RawMaterial::getId,
-                        RawMaterial::getQuantity
-                ));
-        
-        Map<String, Object> response = new HashMap<>();
-        
-        if (productOpt.isEmpty() || materials.isEmpty()) {
-            response.put("success", false);
-            response.put("message", "Produto não encontrado ou sem matérias-primas definidas");
-            return response;
-        }
-        
-        Product product = productOpt.get();
-        boolean canProduce = true;
-        List<Map<String, Object>> requiredMaterials = new ArrayList<>();
-        
-        // Verificar se há estoque suficiente
-        for (ProductMaterial pm : materials) {
-            Long materialId = pm.getRawMaterial().getId();
-            Integer required = pm.getRequiredQuantity() * quantity;
-            Integer available = stockMap.get(materialId);
-            
-            Map<String, Object> materialInfo = new HashMap<>();
-            materialInfo.put("materialId", materialId);
-            materialInfo.put("materialName", pm.getRawMaterial().getName());
-            materialInfo.put("requiredPerUnit", pm.getRequiredQuantity());
-            materialInfo.put("requiredTotal", required);
-            materialInfo.put("available", available);
-            materialInfo.put("sufficient", available != null && available >= required);
-            
-            requiredMaterials.add(materialInfo);
-            
-            if (available == null || available < required) {
-                canProduce = false;
-            }
+        Long siteId = request.get("siteId") != null ? Long.valueOf(request.get("siteId").toString()) : null;
+        if (siteId != null && !siteStockService.siteExists(siteId)) {
+            return ResponseEntity.status(404).body("Planta não encontrada com ID: " + siteId);
         }
-        
-        response.put("productId", productId);
-        response.put("productName", product.getName());
-        response.put("quantity", quantity);
-        response.put("unitValue", product.getValue());
-        response.put("totalValue", product.getValue().multiply(BigDecimal.valueOf(quantity)));
-        response.put("canProduce", canProduce);
-        response.put("materials", requiredMaterials);
-        
-        return response;
+        return ResponseEntity.ok(singleFlight.execute("simulate", "simulate:" + productId + ":" + quantity + ":" + siteId,
+                () -> productionService.simulate(productId, quantity, siteId)));
     }
 }
@@ -1,6 +1,8 @@
 package com.autoflex.controller;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -18,29 +20,85 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.autoflex.model.RawMaterial;
 import com.autoflex.repository.RawMaterialRepository;
+import com.autoflex.service.CatalogSearchService;
+import com.autoflex.service.RawMaterialService;
+import com.autoflex.service.SiteStockService;
+import com.autoflex.service.StockHistoryService;
+import com.autoflex.service.StockAlertService;
 
 @RestController
 @RequestMapping("/raw-materials")
 @CrossOrigin(origins = "http://localhost:3000") 
 public class RawMaterialController {
 
+    // Com estoque por planta o global é a soma das plantas e só muda por elas
+    private static final String SITE_STOCK_MESSAGE =
+            "Matéria-prima com estoque por planta: ajuste informando siteId";
+
     @Autowired
     private RawMaterialRepository repository;
 
+    @Autowired
+    private StockAlertService stockAlertService;
+
+    @Autowired
+    private CatalogSearchService searchService;
+
+    // Leituras passam pelo serviço read-only (podem ir para a réplica)
+    @Autowired
+    private RawMaterialService rawMaterialService;
+
+    @Autowired
+    private StockHistoryService stockHistoryService;
+
+    @Autowired
+    private SiteStockService siteStockService;
+
     // GET /raw-materials
     @GetMapping
     public List<RawMaterial> getAll() {
-        return repository.findAll();
+        return rawMaterialService.getAll();
+    }
+
+    // GET /raw-materials/alerts - apenas as matérias no ponto de reposição ou abaixo
+    @GetMapping("/alerts")
+    public List<Map<String, Object>> getAlerts() {
+        return stockAlertService.getAlerts();
+    }
+
+    // GET /raw-materials/search?q=aco&page=0&size=20 - prefixo e tolerância a erros em código/nome
+    @GetMapping("/search")
+    public Map<String, Object> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return searchService.searchRawMaterials(q, page, size);
     }
 
     // GET /raw-materials/{id}
     @GetMapping("/{id}")
     public ResponseEntity<RawMaterial> getById(@PathVariable Long id) {
-        return repository.findById(id)
+        return rawMaterialService.getById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // GET /raw-materials/{id}/history?from=2026-01-01T00:00:00Z&to=...&resolution=auto|raw|minute|hour|day
+    @GetMapping("/{id}/history")
+    public ResponseEntity<?> getHistory(
+            @PathVariable Long id,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(required = false) String resolution) {
+        if (rawMaterialService.getById(id).isEmpty()) return ResponseEntity.notFound().build();
+        try {
+            return ResponseEntity.ok(stockHistoryService.getHistory(
+                    StockHistoryService.SeriesType.STOCK, id, from, to, resolution));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     // POST /raw-materials
     @PostMapping
     public RawMaterial create(@RequestBody RawMaterial material) {
@@ -49,14 +107,21 @@ public class RawMaterialController {
 
     // PUT /raw-materials/{id}
     @PutMapping("/{id}")
-    public ResponseEntity<RawMaterial> update(@PathVariable Long id, @RequestBody RawMaterial material) {
+    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody RawMaterial material) {
         return repository.findById(id)
-                .map(existing -> {
+                .<ResponseEntity<?>>map(existing -> {
+                    if (material.getQuantity() != null && !material.getQuantity().equals(existing.getQuantity())
+                            && siteStockService.hasSiteStock(id)) {
+                        return ResponseEntity.badRequest().body(SITE_STOCK_MESSAGE);
+                    }
                     existing.setCode(material.getCode());
                     existing.setName(material.getName());
                     existing.setUnit(material.getUnit());        
                     existing.setQuantity(material.getQuantity()); 
                     existing.setUnitPrice(material.getUnitPrice()); 
+                    if (material.getReorderPoint() != null) {
+                        existing.setReorderPoint(material.getReorderPoint());
+                    }
                     repository.save(existing);
                     return ResponseEntity.ok(existing);
                 })
@@ -71,9 +136,24 @@ public class RawMaterialController {
         return ResponseEntity.noContent().build();
     }
 
-    // PATCH /raw-materials/{id}/stock?quantity=10
+    // PATCH /raw-materials/{id}/stock?quantity=10 (&siteId=2 ajusta só o estoque daquela planta)
     @PatchMapping("/{id}/stock")
-    public ResponseEntity<RawMaterial> adjustStock(@PathVariable Long id, @RequestParam Integer quantity) {
+    public ResponseEntity<?> adjustStock(
+            @PathVariable Long id,
+            @RequestParam Integer quantity,
+            @RequestParam(required = false) Long siteId) {
+        if (siteId != null) {
+            try {
+                return ResponseEntity.ok(siteStockService.adjustStock(siteId, id, quantity));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            } catch (RuntimeException e) {
+                return ResponseEntity.status(404).body(e.getMessage());
+            }
+        }
+        if (siteStockService.hasSiteStock(id)) {
+            return ResponseEntity.badRequest().body(SITE_STOCK_MESSAGE);
+        }
         return repository.findById(id)
                 .map(material -> {
                     material.setQuantity(material.getQuantity() + quantity); 
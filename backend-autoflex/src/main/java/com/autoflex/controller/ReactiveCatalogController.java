@@ -0,0 +1,69 @@
+package com.autoflex.controller;
+
+import com.autoflex.service.ProductionService.SuggestionSort;
+import com.autoflex.service.ReactiveCatalogService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import java.util.Map;
+
+// Leituras reativas (R2DBC), só em application/x-ndjson: cada linha é enviada assim que sai do banco.
+// Sem WebFlux, application/json faria o MVC juntar o Flux inteiro em memória; para a lista completa
+// use os endpoints JPA. A escrita bloqueia uma thread do pool de ReactiveStreamingConfig por stream aberto
+@RestController
+@RequestMapping("/reactive")
+@CrossOrigin(origins = "http://localhost:3000")
+@ConditionalOnProperty(prefix = "autoflex.reactive", name = "enabled", havingValue = "true")
+public class ReactiveCatalogController {
+
+    @Autowired
+    private ReactiveCatalogService reactiveCatalogService;
+
+    // GET /reactive/products
+    @GetMapping(value = "/products", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Map<String, Object>> streamProducts() {
+        return reactiveCatalogService.streamProducts();
+    }
+
+    // GET /reactive/raw-materials
+    @GetMapping(value = "/raw-materials", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Map<String, Object>> streamRawMaterials() {
+        return reactiveCatalogService.streamRawMaterials();
+    }
+
+    // GET /reactive/products/search?q=para&limit=20
+    @GetMapping(value = "/products/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Map<String, Object>> searchProducts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        return reactiveCatalogService.searchProducts(q, limit);
+    }
+
+    // GET /reactive/raw-materials/search?q=aco&limit=20
+    @GetMapping(value = "/raw-materials/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Map<String, Object>> searchRawMaterials(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        return reactiveCatalogService.searchRawMaterials(q, limit);
+    }
+
+    // GET /reactive/production/suggestions?sort=value|margin|profit
+    // Mesma regra e mesma ordenação de GET /production/suggestions, com estas diferenças:
+    // só o estoque global (sem siteId), sem materialDetails, e custo lido do banco a cada
+    // chamada em vez do ProductCostIndex. Linhas da BOM com quantidade zero são ignoradas
+    // nos dois caminhos.
+    @GetMapping(value = "/production/suggestions", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Map<String, Object>> streamSuggestions(@RequestParam(required = false) String sort) {
+        SuggestionSort order;
+        try {
+            order = SuggestionSort.from(sort);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return reactiveCatalogService.streamSuggestions(order);
+    }
+}
@@ -0,0 +1,56 @@
+package com.autoflex.controller;
+
+import com.autoflex.model.Site;
+import com.autoflex.model.SiteStock;
+import com.autoflex.service.SiteStockService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+@RestController
+@RequestMapping("/sites")
+@CrossOrigin(origins = "http://localhost:3000")
+public class SiteController {
+
+    @Autowired
+    private SiteStockService siteStockService;
+
+    // GET /sites
+    @GetMapping
+    public List<Site> getAll() {
+        return siteStockService.getSites();
+    }
+
+    // POST /sites
+    @PostMapping
+    public ResponseEntity<?> create(@RequestBody Site site) {
+        try {
+            return ResponseEntity.status(201).body(siteStockService.createSite(site));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // GET /sites/{siteId}/stock
+    @GetMapping("/{siteId}/stock")
+    public ResponseEntity<List<SiteStock>> getStock(@PathVariable Long siteId) {
+        if (!siteStockService.siteExists(siteId)) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(siteStockService.getStock(siteId));
+    }
+
+    // PATCH /sites/{siteId}/stock/{rawMaterialId}?quantity=10
+    @PatchMapping("/{siteId}/stock/{rawMaterialId}")
+    public ResponseEntity<?> adjustStock(
+            @PathVariable Long siteId,
+            @PathVariable Long rawMaterialId,
+            @RequestParam Integer quantity) {
+        try {
+            return ResponseEntity.ok(siteStockService.adjustStock(siteId, rawMaterialId, quantity));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(404).body(e.getMessage());
+        }
+    }
+}
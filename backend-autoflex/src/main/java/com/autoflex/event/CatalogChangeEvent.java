@@ -0,0 +1,13 @@
+package com.autoflex.event;
+
+/**
+ * Evento publicado sempre que produtos, matérias-primas ou linhas da BOM mudam.
+ * Para {@link Entity#PRODUCT_MATERIAL} o id é o do produto dono da BOM;
+ * para {@link Entity#SITE_STOCK} é o da planta cujo estoque mudou.
+ */
+public record CatalogChangeEvent(Entity entity, Long id, Action action) {
+
+    public enum Entity { PRODUCT, RAW_MATERIAL, PRODUCT_MATERIAL, SITE_STOCK }
+
+    public enum Action { CREATED, UPDATED, DELETED }
+}
@@ -0,0 +1,42 @@
+package com.autoflex.event;
+
+import java.util.UUID;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Identifica esta instância nas conexões com o banco (application_name), para que o
+ * trigger grave a origem de cada alteração em catalog_changes e o listener possa
+ * ignorar as próprias.
+ */
+@Component
+@ConditionalOnProperty(prefix = "autoflex.catalog-notify", name = "enabled", havingValue = "true")
+public class CatalogChangeOrigin implements BeanPostProcessor {
+
+    private final String id;
+
+    public CatalogChangeOrigin(@Value("${autoflex.catalog-notify.node-id:}") String nodeId) {
+        // application_name aceita até 63 caracteres
+        this.id = nodeId.isBlank()
+                ? "autoflex-" + UUID.randomUUID().toString().substring(0, 12)
+                : nodeId;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    // Depois do binding das propriedades e antes do primeiro getConnection, que abre o pool
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource dataSource) {
+            dataSource.addDataSourceProperty("ApplicationName", id);
+        }
+        return bean;
+    }
+}
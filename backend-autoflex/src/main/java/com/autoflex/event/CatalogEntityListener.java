@@ -0,0 +1,51 @@
+package com.autoflex.event;
+
+import com.autoflex.model.Product;
+import com.autoflex.model.ProductMaterial;
+import com.autoflex.model.RawMaterial;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+// Listener JPA das entidades do catálogo; o Hibernate obtém a instância pelo contexto do Spring
+@Component
+public class CatalogEntityListener {
+
+    private final ApplicationEventPublisher publisher;
+
+    public CatalogEntityListener(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @PostPersist
+    public void onCreate(Object entity) {
+        publish(entity, CatalogChangeEvent.Action.CREATED);
+    }
+
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        publish(entity, CatalogChangeEvent.Action.UPDATED);
+    }
+
+    @PostRemove
+    public void onDelete(Object entity) {
+        publish(entity, CatalogChangeEvent.Action.DELETED);
+    }
+
+    private void publish(Object entity, CatalogChangeEvent.Action action) {
+        if (entity instanceof Product product) {
+            publisher.publishEvent(new CatalogChangeEvent(
+                    CatalogChangeEvent.Entity.PRODUCT, product.getId(), action));
+        } else if (entity instanceof RawMaterial material) {
+            publisher.publishEvent(new CatalogChangeEvent(
+                    CatalogChangeEvent.Entity.RAW_MATERIAL, material.getId(), action));
+        } else if (entity instanceof ProductMaterial pm) {
+            // Para a BOM o que interessa é o produto afetado
+            publisher.publishEvent(new CatalogChangeEvent(
+                    CatalogChangeEvent.Entity.PRODUCT_MATERIAL, pm.getProduct().getId(),
+                    CatalogChangeEvent.Action.UPDATED));
+        }
+    }
+}
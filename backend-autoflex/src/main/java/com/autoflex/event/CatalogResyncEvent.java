@@ -0,0 +1,8 @@
+package com.autoflex.event;
+
+/**
+ * Publicado quando não é possível saber exatamente o que mudou (por exemplo, a
+ * instância ficou desconectada por mais tempo que a retenção do log de alterações).
+ * Quem mantém cache do catálogo deve descartá-lo por inteiro.
+ */
+public record CatalogResyncEvent(String reason) {}
@@ -0,0 +1,241 @@
+package com.autoflex.event;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import com.autoflex.config.ReplicaRoutingDataSource;
+
+/**
+ * Invalidação de cache entre instâncias via LISTEN/NOTIFY do PostgreSQL.
+ *
+ * Triggers gravam cada alteração em catalog_changes (com o xid da transação e a
+ * instância de origem) e fazem pg_notify na mesma transação, então o aviso só sai
+ * no commit. Aqui a notificação serve apenas para acordar: após uma pequena janela
+ * que agrupa rajadas, as alterações de outras instâncias são lidas do log e
+ * republicadas como {@link RemoteCatalogChangeEvent}, que só atualiza caches. Na
+ * reconexão o mesmo caminho recupera o que foi perdido.
+ *
+ * O seq é alocado no INSERT, não no commit: uma transação mais lenta pode confirmar
+ * um seq menor depois de outro já lido. Por isso a leitura avança por xid, até o
+ * xmin do snapshot atual: abaixo dele todas as transações já terminaram e nada novo
+ * pode aparecer. Uma transação longa em andamento atrasa a propagação até terminar.
+ *
+ * Os triggers e a tabela fazem parte de database-schema.sql (PostgreSQL 13+);
+ * autoflex.catalog-notify.install-trigger=true os instala na inicialização.
+ */
+@Component
+@ConditionalOnProperty(prefix = "autoflex.catalog-notify", name = "enabled", havingValue = "true")
+public class PostgresCatalogChangeListener implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresCatalogChangeListener.class);
+
+    static final String CHANNEL = "autoflex_catalog";
+    private static final int CATCH_UP_LIMIT = 10_000;
+
+    private final ApplicationEventPublisher publisher;
+    private final CatalogChangeOrigin origin;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final boolean installTrigger;
+    private final long debounceMillis;
+    private final Duration retention;
+
+    private volatile boolean running = false;
+    private volatile Thread worker;
+    // Toda transação com xid abaixo deste horizonte já foi lida
+    private long horizon = -1;
+    private long lastCaughtUp;
+
+    public PostgresCatalogChangeListener(ApplicationEventPublisher publisher,
+                                         CatalogChangeOrigin origin,
+                                         @Value("${spring.datasource.url}") String url,
+                                         @Value("${spring.datasource.username}") String username,
+                                         @Value("${spring.datasource.password}") String password,
+                                         @Value("${autoflex.catalog-notify.install-trigger:false}") boolean installTrigger,
+                                         @Value("${autoflex.catalog-notify.debounce-ms:50}") long debounceMillis,
+                                         @Value("${autoflex.catalog-notify.retention:1d}") Duration retention) {
+        this.publisher = publisher;
+        this.origin = origin;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.installTrigger = installTrigger;
+        this.debounceMillis = debounceMillis;
+        this.retention = retention;
+    }
+
+    @Override
+    public void start() {
+        if (installTrigger) {
+            try (Connection connection = DriverManager.getConnection(url, username, password);
+                 Statement statement = connection.createStatement()) {
+                String script = new String(new ClassPathResource("db/catalog-notify.sql")
+                        .getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+                statement.execute(script);
+            } catch (Exception e) {
+                throw new IllegalStateException("Falha ao instalar os triggers de notificação do catálogo", e);
+            }
+        }
+        running = true;
+        worker = new Thread(this::run, "catalog-notify");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread current = worker;
+        if (current != null) current.interrupt();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        long backoff = 500;
+        while (running) {
+            // Conexão dedicada, fora do pool: fica presa ao LISTEN enquanto a instância roda
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pg = connection.unwrap(PGConnection.class);
+
+                if (horizon < 0) {
+                    horizon = snapshotXmin(connection);
+                    lastCaughtUp = System.currentTimeMillis();
+                } else {
+                    catchUp(connection); // alterações feitas enquanto estávamos desconectados
+                }
+                backoff = 500;
+                long lastPrune = 0;
+
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(1000);
+                    if (notifications != null && notifications.length > 0) {
+                        // Janela curta para agrupar uma rajada de commits numa única leitura do log
+                        Thread.sleep(debounceMillis);
+                        pg.getNotifications(1);
+                        catchUp(connection);
+                    }
+                    long now = System.currentTimeMillis();
+                    if (now - lastPrune > Duration.ofMinutes(10).toMillis()) {
+                        prune(connection);
+                        lastPrune = now;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (SQLException e) {
+                if (!running) return;
+                log.warn("Conexão de notificações do catálogo perdida, reconectando em {} ms: {}", backoff, e.getMessage());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoff = Math.min(backoff * 2, 30_000);
+            }
+        }
+    }
+
+    private void catchUp(Connection connection) throws SQLException {
+        if (System.currentTimeMillis() - lastCaughtUp > retention.toMillis()) {
+            // Ficamos fora mais tempo que a retenção do log: parte das alterações pode ter sido podada
+            log.warn("Instância ficou sem acompanhar o log do catálogo por mais que {}, descartando caches", retention);
+            horizon = snapshotXmin(connection);
+            lastCaughtUp = System.currentTimeMillis();
+            publisher.publishEvent(new CatalogResyncEvent("desconectado além da retenção do log"));
+            return;
+        }
+
+        long upTo = snapshotXmin(connection);
+        long cursorXid = horizon;
+        long cursorSeq = -1;
+        boolean more = true;
+        while (more) {
+            // Uma entidade alterada várias vezes na rajada gera um único evento, com a última ação
+            Map<String, CatalogChangeEvent> coalesced = new LinkedHashMap<>();
+            int rows = 0;
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "SELECT xid::text, seq, entity, entity_id, action FROM catalog_changes "
+                            + "WHERE (xid, seq) > (CAST(? AS xid8), ?) AND xid < CAST(? AS xid8) "
+                            + "AND origin IS DISTINCT FROM ? "
+                            + "ORDER BY xid, seq LIMIT ?")) {
+                ps.setString(1, Long.toString(cursorXid));
+                ps.setLong(2, cursorSeq);
+                ps.setString(3, Long.toString(upTo));
+                ps.setString(4, origin.id());
+                ps.setInt(5, CATCH_UP_LIMIT);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        rows++;
+                        cursorXid = Long.parseLong(rs.getString(1));
+                        cursorSeq = rs.getLong(2);
+                        CatalogChangeEvent event = new CatalogChangeEvent(
+                                CatalogChangeEvent.Entity.valueOf(rs.getString(3)),
+                                rs.getLong(4),
+                                CatalogChangeEvent.Action.valueOf(rs.getString(5)));
+                        String key = event.entity() + ":" + event.id();
+                        coalesced.remove(key);
+                        coalesced.put(key, event);
+                    }
+                }
+            }
+            publishRemote(coalesced.values());
+            more = rows == CATCH_UP_LIMIT;
+        }
+        horizon = upTo;
+        lastCaughtUp = System.currentTimeMillis();
+    }
+
+    // As releituras dos caches vão ao primário: a réplica pode ainda não ter a alteração
+    private void publishRemote(Collection<CatalogChangeEvent> changes) {
+        if (changes.isEmpty()) return;
+        ReplicaRoutingDataSource.runOnPrimary(
+                () -> changes.forEach(change -> publisher.publishEvent(new RemoteCatalogChangeEvent(change))));
+    }
+
+    private void prune(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "DELETE FROM catalog_changes WHERE changed_at < now() - make_interval(secs => ?)")) {
+            ps.setLong(1, retention.toSeconds());
+            ps.executeUpdate();
+        }
+    }
+
+    private static long snapshotXmin(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT pg_snapshot_xmin(pg_current_snapshot())::text")) {
+            rs.next();
+            return Long.parseLong(rs.getString(1));
+        }
+    }
+}
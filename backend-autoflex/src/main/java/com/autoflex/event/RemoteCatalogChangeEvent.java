@@ -0,0 +1,8 @@
+package com.autoflex.event;
+
+/**
+ * Alteração do catálogo confirmada por outra instância, lida do log catalog_changes.
+ * Serve só para atualizar caches locais: efeitos colaterais (como o histórico de
+ * estoque) já foram produzidos pela instância que fez a alteração.
+ */
+public record RemoteCatalogChangeEvent(CatalogChangeEvent change) {}
@@ -0,0 +1,19 @@
+package com.autoflex.job;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Executa um tipo de job. Implementações são beans do Spring e são descobertas
+ * pelo {@link JobWorkerPool}; o retorno é gravado como JSON no resultado do job.
+ */
+public interface JobHandler {
+
+    String type();
+
+    // Pool de workers que executa este tipo (tamanho em autoflex.jobs.pools.<pool>.threads)
+    default String pool() {
+        return "default";
+    }
+
+    Object execute(JsonNode payload, JobProgress progress) throws Exception;
+}
@@ -0,0 +1,8 @@
+package com.autoflex.job;
+
+// Progresso de 0 a 100 informado pelo handler durante a execução
+@FunctionalInterface
+public interface JobProgress {
+
+    void report(int percent);
+}
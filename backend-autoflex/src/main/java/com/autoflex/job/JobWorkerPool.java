@@ -0,0 +1,277 @@
+package com.autoflex.job;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.autoflex.model.Job;
+import com.autoflex.repository.JobRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Workers que consomem a tabela jobs.
+ *
+ * Cada pool (definido pelos handlers) tem suas próprias threads, que reservam um
+ * job por vez com FOR UPDATE SKIP LOCKED: várias instâncias podem rodar workers
+ * sem coordenação e sem pegar o mesmo job. Falhas voltam para a fila com backoff
+ * exponencial até maxAttempts; jobs de um worker que caiu são devolvidos quando o
+ * lock expira. Enquanto um job roda, um heartbeat renova o lock; no desligamento
+ * os jobs em andamento têm um prazo para terminar e os que sobram voltam à fila.
+ */
+@Component
+@ConditionalOnProperty(prefix = "autoflex.jobs.workers", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class JobWorkerPool implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(JobWorkerPool.class);
+
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+    private static final long PROGRESS_INTERVAL_MS = 1000;
+
+    private final JobRepository jobRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Environment environment;
+    private final Map<String, JobHandler> handlers = new LinkedHashMap<>();
+    private final long pollIntervalMillis;
+    private final Duration retryBackoff;
+    private final Duration lockTimeout;
+    private final Duration shutdownGrace;
+    private final String workerId;
+
+    // Jobs em execução nesta instância (id → locked_by), para heartbeat e liberação no desligamento
+    private final Map<Long, String> inFlight = new ConcurrentHashMap<>();
+
+    private final List<ExecutorService> pools = new ArrayList<>();
+    private volatile boolean running = false;
+
+    public JobWorkerPool(JobRepository jobRepository,
+                         TransactionTemplate transactionTemplate,
+                         ObjectMapper objectMapper,
+                         Environment environment,
+                         List<JobHandler> handlers,
+                         @Value("${autoflex.jobs.poll-interval-ms:1000}") long pollIntervalMillis,
+                         @Value("${autoflex.jobs.retry-backoff:5s}") Duration retryBackoff,
+                         @Value("${autoflex.jobs.lock-timeout:10m}") Duration lockTimeout,
+                         @Value("${autoflex.jobs.shutdown-grace:30s}") Duration shutdownGrace) {
+        this.jobRepository = jobRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.environment = environment;
+        handlers.forEach(handler -> this.handlers.put(handler.type(), handler));
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.retryBackoff = retryBackoff;
+        this.lockTimeout = lockTimeout;
+        this.shutdownGrace = shutdownGrace;
+        this.workerId = ManagementFactory.getRuntimeMXBean().getName();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        Map<String, List<String>> typesByPool = new LinkedHashMap<>();
+        handlers.values().forEach(handler ->
+                typesByPool.computeIfAbsent(handler.pool(), pool -> new ArrayList<>()).add(handler.type()));
+
+        typesByPool.forEach((pool, types) -> {
+            int threads = environment.getProperty("autoflex.jobs.pools." + pool + ".threads", Integer.class, 2);
+            if (threads <= 0) return; // pool desligado nesta instância
+            AtomicInteger counter = new AtomicInteger();
+            ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "job-" + pool + "-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            for (int i = 0; i < threads; i++) {
+                String worker = workerId + "/" + pool + "-" + (i + 1);
+                executor.submit(() -> poll(worker, Set.copyOf(types)));
+            }
+            pools.add(executor);
+            log.info("Pool de jobs '{}' iniciado com {} worker(s) para {}", pool, threads, types);
+        });
+    }
+
+    // Para de reservar jobs, espera os em andamento e devolve à fila os que não terminaram a tempo
+    @Override
+    public void stop() {
+        running = false;
+        pools.forEach(ExecutorService::shutdown);
+        long deadline = System.nanoTime() + shutdownGrace.toNanos();
+        try {
+            for (ExecutorService executor : pools) {
+                executor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+            pools.forEach(ExecutorService::shutdownNow);
+            for (ExecutorService executor : pools) {
+                executor.awaitTermination(5, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            pools.forEach(ExecutorService::shutdownNow);
+            Thread.currentThread().interrupt();
+        }
+        pools.clear();
+        releaseInFlight();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Devolve à fila jobs com lock vencido, ou marca FAILED se não restam tentativas; qualquer instância pode fazer isso
+    @Scheduled(fixedDelayString = "${autoflex.jobs.recovery-interval-ms:60000}")
+    public void recoverStaleJobs() {
+        long timeout = lockTimeout.toSeconds();
+        Integer failed = transactionTemplate.execute(status -> jobRepository.failStale(timeout));
+        Integer requeued = transactionTemplate.execute(status -> jobRepository.requeueStale(timeout));
+        if (failed != null && failed > 0) {
+            log.error("{} job(s) com lock vencido e sem tentativas restantes marcado(s) como FAILED", failed);
+        }
+        if (requeued != null && requeued > 0) {
+            log.warn("{} job(s) com lock vencido devolvido(s) à fila", requeued);
+        }
+    }
+
+    // Renova o lock dos jobs em execução mesmo quando o handler não reporta progresso
+    @Scheduled(fixedDelayString = "${autoflex.jobs.heartbeat-interval-ms:30000}")
+    public void heartbeat() {
+        inFlight.forEach((id, worker) -> {
+            try {
+                transactionTemplate.executeWithoutResult(status -> jobRepository.renewLock(id, worker));
+            } catch (Exception e) {
+                log.warn("Falha ao renovar o lock do job {}: {}", id, e.getMessage());
+            }
+        });
+    }
+
+    private void releaseInFlight() {
+        inFlight.forEach((id, worker) -> {
+            try {
+                Integer released = transactionTemplate.execute(status -> jobRepository.release(id, worker));
+                if (released != null && released > 0) {
+                    log.info("Job {} interrompido no desligamento e devolvido à fila", id);
+                }
+            } catch (Exception e) {
+                log.warn("Falha ao devolver o job {} à fila: {}", id, e.getMessage());
+            }
+        });
+        inFlight.clear();
+    }
+
+    private void poll(String worker, Set<String> types) {
+        while (running && !Thread.currentThread().isInterrupted()) {
+            try {
+                Optional<Job> claimed = transactionTemplate.execute(status -> jobRepository.claimNext(worker, types));
+                if (claimed == null || claimed.isEmpty()) {
+                    Thread.sleep(pollIntervalMillis);
+                    continue;
+                }
+                run(claimed.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.warn("Falha ao buscar jobs ({}): {}", worker, e.getMessage());
+                try {
+                    Thread.sleep(pollIntervalMillis);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private void run(Job job) {
+        JobHandler handler = handlers.get(job.getType());
+        inFlight.put(job.getId(), job.getLockedBy());
+        boolean interruptedByShutdown = false;
+        try {
+            JsonNode payload = job.getPayload() != null
+                    ? objectMapper.readTree(job.getPayload())
+                    : objectMapper.createObjectNode();
+            Object result = handler.execute(payload, progressFor(job.getId()));
+            String json = objectMapper.writeValueAsString(result);
+            finish(job, stored -> {
+                stored.setStatus(Job.SUCCEEDED);
+                stored.setProgress(100);
+                stored.setResult(json);
+                stored.setError(null);
+            });
+        } catch (Exception e) {
+            if (!running && (e instanceof InterruptedException || Thread.currentThread().isInterrupted())) {
+                // Interrompido no desligamento: não é falha do job, stop() o devolve à fila
+                interruptedByShutdown = true;
+                return;
+            }
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            if (job.getAttempts() < job.getMaxAttempts()) {
+                Duration delay = retryBackoff.multipliedBy(1L << Math.min(job.getAttempts() - 1, 20));
+                if (delay.compareTo(MAX_BACKOFF) > 0) delay = MAX_BACKOFF;
+                Instant runAfter = Instant.now().plus(delay);
+                log.warn("Job {} ({}) falhou na tentativa {}/{}, nova tentativa em {}s: {}",
+                        job.getId(), job.getType(), job.getAttempts(), job.getMaxAttempts(), delay.toSeconds(), message);
+                finish(job, stored -> {
+                    stored.setStatus(Job.QUEUED);
+                    stored.setRunAfter(runAfter);
+                    stored.setError(message);
+                });
+            } else {
+                log.error("Job {} ({}) falhou definitivamente após {} tentativa(s)", job.getId(), job.getType(),
+                        job.getAttempts(), e);
+                finish(job, stored -> {
+                    stored.setStatus(Job.FAILED);
+                    stored.setError(message);
+                });
+            }
+        } finally {
+            if (!interruptedByShutdown) inFlight.remove(job.getId());
+        }
+    }
+
+    private void finish(Job job, Consumer<Job> update) {
+        transactionTemplate.executeWithoutResult(status -> jobRepository.findById(job.getId()).ifPresent(stored -> {
+            // Se o lock venceu e outro worker assumiu o job, este resultado é descartado
+            if (!Job.RUNNING.equals(stored.getStatus()) || !job.getLockedBy().equals(stored.getLockedBy())) {
+                log.warn("Job {} não pertence mais a {}; resultado descartado", job.getId(), job.getLockedBy());
+                return;
+            }
+            update.accept(stored);
+            stored.setLockedBy(null);
+            stored.setLockedAt(null);
+            jobRepository.save(stored);
+        }));
+    }
+
+    // Grava o progresso no máximo uma vez por segundo; cada gravação renova o lock
+    private JobProgress progressFor(Long id) {
+        long[] lastWrite = {0};
+        return percent -> {
+            long now = System.currentTimeMillis();
+            if (percent < 100 && now - lastWrite[0] < PROGRESS_INTERVAL_MS) return;
+            lastWrite[0] = now;
+            int clamped = Math.max(0, Math.min(100, percent));
+            transactionTemplate.executeWithoutResult(status -> jobRepository.updateProgress(id, clamped));
+        };
+    }
+}
@@ -0,0 +1,55 @@
+package com.autoflex.job;
+
+import org.springframework.stereotype.Component;
+
+import com.autoflex.service.ProductionService;
+import com.autoflex.service.ProductionService.SuggestionSort;
+import com.autoflex.service.SiteStockService;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Sugestões de produção fora da requisição. Payload opcional:
+ * {"siteId": 2}, {"allSites": true} ou {"bySite": true}, e "sort" (value, margin ou profit),
+ * como no /production.
+ */
+@Component
+public class ProductionSuggestionsJobHandler implements JobHandler {
+
+    private final ProductionService productionService;
+    private final SiteStockService siteStockService;
+
+    public ProductionSuggestionsJobHandler(ProductionService productionService, SiteStockService siteStockService) {
+        this.productionService = productionService;
+        this.siteStockService = siteStockService;
+    }
+
+    @Override
+    public String type() {
+        return "production-suggestions";
+    }
+
+    @Override
+    public String pool() {
+        return "planning";
+    }
+
+    @Override
+    public Object execute(JsonNode payload, JobProgress progress) {
+        SuggestionSort sort = SuggestionSort.from(payload.path("sort").asText(null));
+        progress.report(0);
+        if (payload.hasNonNull("siteId")) {
+            long siteId = payload.get("siteId").asLong();
+            if (!siteStockService.siteExists(siteId)) {
+                throw new IllegalArgumentException("Planta não encontrada com ID: " + siteId);
+            }
+            return productionService.getSuggestionsForSite(siteId, sort);
+        }
+        if (payload.path("bySite").asBoolean(false)) {
+            return productionService.getSuggestionsBySite(sort);
+        }
+        if (payload.path("allSites").asBoolean(false)) {
+            return productionService.getSuggestionsAcrossSites(sort);
+        }
+        return productionService.getSuggestions(sort);
+    }
+}
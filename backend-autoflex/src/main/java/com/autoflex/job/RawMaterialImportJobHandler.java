@@ -0,0 +1,120 @@
+package com.autoflex.job;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.stereotype.Component;
+
+import com.autoflex.model.RawMaterial;
+import com.autoflex.service.RawMaterialService;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Importação em massa de matérias-primas. Payload:
+ * {"materials": [{"code": "MP-01", "name": "...", "unit": "kg", "quantity": 10, "unitPrice": 2.5}]}
+ *
+ * Cada linha é criada ou atualizada (pelo código) na sua própria transação, então uma
+ * linha inválida não desfaz as outras; os erros voltam no resultado do job.
+ * Numa atualização, campos ausentes mantêm o valor atual; numa criação, quantity e
+ * unitPrice são obrigatórios.
+ */
+@Component
+public class RawMaterialImportJobHandler implements JobHandler {
+
+    private static final int MAX_ERRORS = 100;
+
+    private final RawMaterialService rawMaterialService;
+
+    public RawMaterialImportJobHandler(RawMaterialService rawMaterialService) {
+        this.rawMaterialService = rawMaterialService;
+    }
+
+    @Override
+    public String type() {
+        return "raw-material-import";
+    }
+
+    @Override
+    public String pool() {
+        return "import";
+    }
+
+    @Override
+    public Object execute(JsonNode payload, JobProgress progress) {
+        JsonNode materials = payload.path("materials");
+        if (!materials.isArray()) {
+            throw new IllegalArgumentException("Payload deve conter a lista 'materials'");
+        }
+
+        int total = materials.size();
+        int created = 0;
+        int updated = 0;
+        List<String> errors = new ArrayList<>();
+
+        for (int i = 0; i < total; i++) {
+            JsonNode line = materials.get(i);
+            try {
+                RawMaterial material = toRawMaterial(line);
+                Optional<RawMaterial> existing = rawMaterialService.findByCode(material.getCode());
+                if (existing.isPresent()) {
+                    rawMaterialService.update(existing.get().getId(), material);
+                    updated++;
+                } else {
+                    if (material.getQuantity() == null || material.getUnitPrice() == null) {
+                        throw new IllegalArgumentException("quantity e unitPrice são obrigatórios para criar "
+                                + material.getCode());
+                    }
+                    if (material.getUnit() == null) material.setUnit("un");
+                    rawMaterialService.create(material);
+                    created++;
+                }
+            } catch (RuntimeException e) {
+                if (errors.size() < MAX_ERRORS) errors.add("Linha " + (i + 1) + ": " + e.getMessage());
+            }
+            progress.report((i + 1) * 100 / total);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("total", total);
+        result.put("created", created);
+        result.put("updated", updated);
+        result.put("failed", total - created - updated);
+        result.put("errors", errors);
+        return result;
+    }
+
+    // Campos ausentes ficam null; quem decide o que fazer com eles é a criação ou a atualização
+    private RawMaterial toRawMaterial(JsonNode line) {
+        String code = line.path("code").asText("").trim();
+        String name = line.path("name").asText("").trim();
+        if (code.isEmpty() || name.isEmpty()) {
+            throw new IllegalArgumentException("code e name são obrigatórios");
+        }
+        Integer quantity = null;
+        if (line.hasNonNull("quantity")) {
+            if (!line.get("quantity").canConvertToInt()) {
+                throw new IllegalArgumentException("quantity deve ser um número inteiro");
+            }
+            quantity = line.get("quantity").asInt();
+            if (quantity < 0) {
+                throw new IllegalArgumentException("quantidade não pode ser negativa");
+            }
+        }
+        BigDecimal unitPrice = null;
+        if (line.hasNonNull("unitPrice")) {
+            if (!line.get("unitPrice").isNumber()) {
+                throw new IllegalArgumentException("unitPrice deve ser numérico");
+            }
+            unitPrice = line.get("unitPrice").decimalValue();
+        }
+        String unit = line.hasNonNull("unit") ? line.get("unit").asText().trim() : null;
+        RawMaterial material = new RawMaterial(code, name, unit == null || unit.isEmpty() ? null : unit,
+                quantity, unitPrice);
+        material.setReorderPoint(line.hasNonNull("reorderPoint") ? line.get("reorderPoint").asInt() : null);
+        return material;
+    }
+}
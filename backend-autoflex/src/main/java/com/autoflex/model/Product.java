@@ -1,5 +1,6 @@
 package com.autoflex.model;
 
+import com.autoflex.event.CatalogEntityListener;
 import jakarta.persistence.*;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.math.BigDecimal;
@@ -7,6 +8,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "products")
+@EntityListeners(CatalogEntityListener.class)
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
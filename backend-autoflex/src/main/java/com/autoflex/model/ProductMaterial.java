@@ -1,18 +1,25 @@
 package com.autoflex.model;
 
+import com.autoflex.event.CatalogEntityListener;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "product_materials")
+@Table(name = "product_materials", indexes = {
+    // Índice reverso da BOM: quais produtos usam cada matéria-prima
+    @Index(name = "idx_product_materials_raw_material", columnList = "raw_material_id")
+})
+@EntityListeners(CatalogEntityListener.class)
 public class ProductMaterial {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -1,5 +1,6 @@
 package com.autoflex.model;
 
+import com.autoflex.event.CatalogEntityListener;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.util.List;
@@ -7,6 +8,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
 @Table(name = "raw_materials")
+@EntityListeners(CatalogEntityListener.class)
 public class RawMaterial {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -26,12 +28,24 @@ public class RawMaterial {
     
     @Column(nullable = false)
     private BigDecimal unitPrice;
+
+    public static final int DEFAULT_REORDER_POINT = 10;
+
+    // Ponto de reposição: abaixo ou igual a este estoque a matéria-prima gera alerta.
+    // Sem valor inicial no campo: um PUT sem reorderPoint chega como null e mantém o atual
+    @Column(nullable = false, columnDefinition = "integer default 10")
+    private Integer reorderPoint;
     
     @OneToMany(mappedBy = "rawMaterial")
     @JsonIgnore
     private List<ProductMaterial> productMaterials;
     
     public RawMaterial() {}
+
+    @PrePersist
+    void applyDefaults() {
+        if (reorderPoint == null) reorderPoint = DEFAULT_REORDER_POINT;
+    }
     
     // Construtor simplificado para testes
     public RawMaterial(String code, String name, String unit, Integer quantity, BigDecimal unitPrice) {
@@ -69,6 +83,9 @@ public class RawMaterial {
     
     public BigDecimal getUnitPrice() { return unitPrice; }
     public void setUnitPrice(BigDecimal unitPrice) { this.unitPrice = unitPrice; }
+
+    public Integer getReorderPoint() { return reorderPoint; }
+    public void setReorderPoint(Integer reorderPoint) { this.reorderPoint = reorderPoint; }
     
     @JsonIgnore 
     public List<ProductMaterial> getProductMaterials() { 
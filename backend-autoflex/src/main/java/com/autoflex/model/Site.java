@@ -0,0 +1,33 @@
+package com.autoflex.model;
+
+import jakarta.persistence.*;
+
+// Planta/almoxarifado com estoque próprio
+@Entity
+@Table(name = "sites")
+public class Site {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 50, unique = true, nullable = false)
+    private String code;
+
+    @Column(length = 100, nullable = false)
+    private String name;
+
+    public Site() {}
+
+    public Site(String code, String name) {
+        this.code = code;
+        this.name = name;
+    }
+
+    // Getters e Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getCode() { return code; }
+    public void setCode(String code) { this.code = code; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+}
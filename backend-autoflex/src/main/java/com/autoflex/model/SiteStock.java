@@ -0,0 +1,58 @@
+package com.autoflex.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Check;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * Estoque de uma matéria-prima em uma planta. Cada (site, matéria-prima) é uma
+ * linha própria, então ajustes em plantas diferentes nunca disputam a mesma linha.
+ * Os ids são colunas simples para o ajuste não precisar carregar site nem matéria-prima;
+ * as associações somente leitura sobre as mesmas colunas existem para gerar as chaves
+ * estrangeiras (com exclusão em cascata) e o CHECK de saldo não negativo.
+ */
+@Entity
+@Check(constraints = "quantity >= 0")
+@Table(name = "site_stocks", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"siteId", "rawMaterialId"})
+})
+public class SiteStock {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long siteId;
+
+    @Column(nullable = false)
+    private Long rawMaterialId;
+
+    @Column(nullable = false)
+    private Integer quantity = 0;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "site_id", insertable = false, updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JsonIgnore
+    private Site site;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "raw_material_id", insertable = false, updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JsonIgnore
+    private RawMaterial rawMaterial;
+
+    public SiteStock() {}
+
+    // Getters e Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getSiteId() { return siteId; }
+    public void setSiteId(Long siteId) { this.siteId = siteId; }
+    public Long getRawMaterialId() { return rawMaterialId; }
+    public void setRawMaterialId(Long rawMaterialId) { this.rawMaterialId = rawMaterialId; }
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+}
@@ -0,0 +1,73 @@
+package com.autoflex.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Um dia de amostras de uma série (estoque de uma matéria-prima ou capacidade
+ * de um produto). As amostras ficam em {@code data} codificadas em delta:
+ * cada uma guarda só a diferença de tempo e de valor em relação à anterior.
+ */
+@Entity
+@Table(name = "stock_history_buckets", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"seriesType", "seriesId", "bucketStart"})
+})
+public class StockHistoryBucket {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 20, nullable = false)
+    private String seriesType;
+
+    @Column(nullable = false)
+    private Long seriesId;
+
+    // Início do dia (UTC) em epoch millis
+    @Column(nullable = false)
+    private Long bucketStart;
+
+    @Column(nullable = false)
+    private Integer sampleCount = 0;
+
+    // Última amostra gravada: base para codificar a próxima sem decodificar o bloco
+    @Column(nullable = false)
+    private Long lastTimestamp;
+
+    @Column(nullable = false)
+    private Long lastValue = 0L;
+
+    @Column(nullable = false)
+    private byte[] data = new byte[0];
+
+    @Version
+    private Long version;
+
+    public StockHistoryBucket() {}
+
+    public StockHistoryBucket(String seriesType, Long seriesId, Long bucketStart) {
+        this.seriesType = seriesType;
+        this.seriesId = seriesId;
+        this.bucketStart = bucketStart;
+        this.lastTimestamp = bucketStart;
+    }
+
+    // Getters e Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getSeriesType() { return seriesType; }
+    public void setSeriesType(String seriesType) { this.seriesType = seriesType; }
+    public Long getSeriesId() { return seriesId; }
+    public void setSeriesId(Long seriesId) { this.seriesId = seriesId; }
+    public Long getBucketStart() { return bucketStart; }
+    public void setBucketStart(Long bucketStart) { this.bucketStart = bucketStart; }
+    public Integer getSampleCount() { return sampleCount; }
+    public void setSampleCount(Integer sampleCount) { this.sampleCount = sampleCount; }
+    public Long getLastTimestamp() { return lastTimestamp; }
+    public void setLastTimestamp(Long lastTimestamp) { this.lastTimestamp = lastTimestamp; }
+    public Long getLastValue() { return lastValue; }
+    public void setLastValue(Long lastValue) { this.lastValue = lastValue; }
+    public byte[] getData() { return data; }
+    public void setData(byte[] data) { this.data = data; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+}
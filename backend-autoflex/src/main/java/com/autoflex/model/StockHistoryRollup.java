@@ -0,0 +1,96 @@
+package com.autoflex.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Agregado de uma série em um intervalo fixo (minuto, hora ou dia).
+ *
+ * A série é em degraus: cada valor vale até a próxima amostra. weightedSum é a
+ * integral valor × ms de firstTimestamp até lastTimestamp; a média ponderada pelo
+ * tempo estende lastValue até o fim do intervalo (ou até agora, se ainda aberto).
+ */
+@Entity
+@Table(name = "stock_history_rollups", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"seriesType", "seriesId", "resolution", "bucketStart"})
+})
+public class StockHistoryRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 20, nullable = false)
+    private String seriesType;
+
+    @Column(nullable = false)
+    private Long seriesId;
+
+    @Column(length = 10, nullable = false)
+    private String resolution;
+
+    @Column(nullable = false)
+    private Long bucketStart;
+
+    @Column(nullable = false)
+    private Long minValue;
+
+    @Column(nullable = false)
+    private Long maxValue;
+
+    @Column(nullable = false)
+    private Long lastValue;
+
+    @Column(nullable = false)
+    private Long weightedSum = 0L;
+
+    // Início do trecho coberto: o início do intervalo quando o valor anterior é conhecido
+    @Column(nullable = false)
+    private Long firstTimestamp;
+
+    @Column(nullable = false)
+    private Long lastTimestamp;
+
+    @Column(nullable = false)
+    private Integer sampleCount = 0;
+
+    @Version
+    private Long version;
+
+    public StockHistoryRollup() {}
+
+    public StockHistoryRollup(String seriesType, Long seriesId, String resolution, Long bucketStart) {
+        this.seriesType = seriesType;
+        this.seriesId = seriesId;
+        this.resolution = resolution;
+        this.bucketStart = bucketStart;
+        this.firstTimestamp = bucketStart;
+        this.lastTimestamp = bucketStart;
+    }
+
+    // Getters e Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getSeriesType() { return seriesType; }
+    public void setSeriesType(String seriesType) { this.seriesType = seriesType; }
+    public Long getSeriesId() { return seriesId; }
+    public void setSeriesId(Long seriesId) { this.seriesId = seriesId; }
+    public String getResolution() { return resolution; }
+    public void setResolution(String resolution) { this.resolution = resolution; }
+    public Long getBucketStart() { return bucketStart; }
+    public void setBucketStart(Long bucketStart) { this.bucketStart = bucketStart; }
+    public Long getMinValue() { return minValue; }
+    public void setMinValue(Long minValue) { this.minValue = minValue; }
+    public Long getMaxValue() { return maxValue; }
+    public void setMaxValue(Long maxValue) { this.maxValue = maxValue; }
+    public Long getLastValue() { return lastValue; }
+    public void setLastValue(Long lastValue) { this.lastValue = lastValue; }
+    public Long getWeightedSum() { return weightedSum; }
+    public void setWeightedSum(Long weightedSum) { this.weightedSum = weightedSum; }
+    public Long getFirstTimestamp() { return firstTimestamp; }
+    public void setFirstTimestamp(Long firstTimestamp) { this.firstTimestamp = firstTimestamp; }
+    public Long getLastTimestamp() { return lastTimestamp; }
+    public void setLastTimestamp(Long lastTimestamp) { this.lastTimestamp = lastTimestamp; }
+    public Integer getSampleCount() { return sampleCount; }
+    public void setSampleCount(Integer sampleCount) { this.sampleCount = sampleCount; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+}
@@ -0,0 +1,57 @@
+package com.autoflex.repository;
+
+import com.autoflex.model.Job;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public interface JobRepository extends ListCrudRepository<Job, Long> {
+
+    // Reserva o próximo job pronto dos tipos informados; linhas já reservadas por outro worker são puladas
+    @Query(value = "UPDATE jobs SET status = 'RUNNING', locked_by = :worker, locked_at = now(), "
+            + "attempts = attempts + 1, updated_at = now() "
+            + "WHERE id = (SELECT id FROM jobs WHERE status = 'QUEUED' AND run_after <= now() AND type IN (:types) "
+            + "AND attempts < max_attempts "
+            + "ORDER BY id FOR UPDATE SKIP LOCKED LIMIT 1) "
+            + "RETURNING *", nativeQuery = true)
+    Optional<Job> claimNext(@Param("worker") String worker, @Param("types") Collection<String> types);
+
+    // Progresso também renova o lock, para jobs longos não serem tomados como abandonados
+    @Modifying
+    @Query(value = "UPDATE jobs SET progress = :progress, locked_at = now(), updated_at = now() "
+            + "WHERE id = :id AND status = 'RUNNING'", nativeQuery = true)
+    int updateProgress(@Param("id") Long id, @Param("progress") int progress);
+
+    // Heartbeat do worker que ainda executa o job
+    @Modifying
+    @Query(value = "UPDATE jobs SET locked_at = now() WHERE id = :id AND status = 'RUNNING' AND locked_by = :worker",
+            nativeQuery = true)
+    int renewLock(@Param("id") Long id, @Param("worker") String worker);
+
+    // Devolve à fila um job interrompido no desligamento; a tentativa não conta como falha
+    @Modifying
+    @Query(value = "UPDATE jobs SET status = 'QUEUED', locked_by = NULL, locked_at = NULL, "
+            + "attempts = GREATEST(attempts - 1, 0), updated_at = now() "
+            + "WHERE id = :id AND status = 'RUNNING' AND locked_by = :worker", nativeQuery = true)
+    int release(@Param("id") Long id, @Param("worker") String worker);
+
+    // Devolve à fila jobs cujo worker sumiu (instância caiu no meio da execução)
+    @Modifying
+    @Query(value = "UPDATE jobs SET status = 'QUEUED', locked_by = NULL, locked_at = NULL, updated_at = now() "
+            + "WHERE status = 'RUNNING' AND locked_at < now() - make_interval(secs => :timeoutSeconds) "
+            + "AND attempts < max_attempts", nativeQuery = true)
+    int requeueStale(@Param("timeoutSeconds") long timeoutSeconds);
+
+    // Jobs abandonados que já esgotaram as tentativas não voltam para a fila
+    @Modifying
+    @Query(value = "UPDATE jobs SET status = 'FAILED', locked_by = NULL, locked_at = NULL, "
+            + "error = 'Worker parou de responder na última tentativa', updated_at = now() "
+            + "WHERE status = 'RUNNING' AND locked_at < now() - make_interval(secs => :timeoutSeconds) "
+            + "AND attempts >= max_attempts", nativeQuery = true)
+    int failStale(@Param("timeoutSeconds") long timeoutSeconds);
+}
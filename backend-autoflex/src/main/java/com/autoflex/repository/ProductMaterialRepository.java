@@ -3,8 +3,11 @@ package com.autoflex.repository;
 import com.autoflex.model.Product;
 import com.autoflex.model.RawMaterial;
 import com.autoflex.model.ProductMaterial;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
 
@@ -16,8 +19,23 @@ public interface ProductMaterialRepository extends ListCrudRepository<ProductMat
     List<ProductMaterial> findByProductId(Long productId);
     
     List<ProductMaterial> findByRawMaterialId(Long rawMaterialId);
+
+    List<ProductMaterial> findByProductIdIn(Collection<Long> productIds);
     
    
     Optional<ProductMaterial> findByProductAndRawMaterial(Product product, RawMaterial rawMaterial);
+
+    // Linhas da BOM sem carregar as entidades: [rawMaterialId, requiredQuantity]
+    @Query("select pm.rawMaterial.id, pm.requiredQuantity from ProductMaterial pm where pm.product.id = :productId")
+    List<Object[]> findBomLinesByProductId(@Param("productId") Long productId);
+
+    // BOM inteira sem carregar as entidades: [productId, rawMaterialId, requiredQuantity]
+    @Query("select pm.product.id, pm.rawMaterial.id, pm.requiredQuantity from ProductMaterial pm")
+    List<Object[]> findAllBomLines();
+
+    // Índice reverso da BOM: [rawMaterialId, productId, productCode, productName, requiredQuantity]
+    @Query("select pm.rawMaterial.id, p.id, p.code, p.name, pm.requiredQuantity "
+            + "from ProductMaterial pm join pm.product p where pm.rawMaterial.id in :rawMaterialIds")
+    List<Object[]> findUsagesByRawMaterialIds(@Param("rawMaterialIds") Collection<Long> rawMaterialIds);
     
 }
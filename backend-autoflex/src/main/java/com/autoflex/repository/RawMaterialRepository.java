@@ -1,13 +1,36 @@
 package com.autoflex.repository;
 
 import com.autoflex.model.RawMaterial;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RawMaterialRepository extends ListCrudRepository<RawMaterial, Long> {
     
     Optional<RawMaterial> findByCode(String code); // Buscar matéria-prima pelo código
+
+    @Query("select rm.id from RawMaterial rm where rm.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Servida pelo índice parcial idx_raw_materials_low_stock (ver database-schema.sql)
+    // Bloqueia a linha da matéria-prima: serializa os ajustes de estoque dela entre plantas
+    @Query(value = "SELECT id FROM raw_materials WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockById(@Param("id") Long id);
+
+    // Estoque global = soma das plantas; só chamado para matérias-primas com estoque por planta
+    @Modifying
+    @Query(value = "UPDATE raw_materials SET quantity = "
+            + "(SELECT COALESCE(SUM(s.quantity), 0) FROM site_stocks s WHERE s.raw_material_id = :id) "
+            + "WHERE id = :id", nativeQuery = true)
+    int syncQuantityFromSites(@Param("id") Long id);
+
+    @Query("select rm from RawMaterial rm where rm.quantity <= rm.reorderPoint")
+    List<RawMaterial> findLowStock();
     
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.autoflex.repository;
+
+import com.autoflex.model.Site;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.stereotype.Repository;
+import java.util.Optional;
+
+@Repository
+public interface SiteRepository extends ListCrudRepository<Site, Long> {
+
+    Optional<Site> findByCode(String code);
+
+}
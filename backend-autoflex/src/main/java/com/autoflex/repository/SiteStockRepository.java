@@ -0,0 +1,38 @@
+package com.autoflex.repository;
+
+import com.autoflex.model.SiteStock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SiteStockRepository extends ListCrudRepository<SiteStock, Long> {
+
+    List<SiteStock> findBySiteId(Long siteId);
+
+    Optional<SiteStock> findBySiteIdAndRawMaterialId(Long siteId, Long rawMaterialId);
+
+    boolean existsByRawMaterialId(Long rawMaterialId);
+
+    // Soma entre plantas: [rawMaterialId, quantidade total]
+    @Query("select s.rawMaterialId, sum(s.quantity) from SiteStock s group by s.rawMaterialId")
+    List<Object[]> sumByRawMaterial();
+
+    // Entrada de estoque numa única instrução: cria a linha ou soma à existente
+    @Modifying
+    @Query(value = "INSERT INTO site_stocks (site_id, raw_material_id, quantity) VALUES (:siteId, :rawMaterialId, :delta) "
+            + "ON CONFLICT (site_id, raw_material_id) DO UPDATE SET quantity = site_stocks.quantity + EXCLUDED.quantity",
+            nativeQuery = true)
+    int addStock(@Param("siteId") Long siteId, @Param("rawMaterialId") Long rawMaterialId, @Param("delta") int delta);
+
+    // Saída de estoque: só altera se o saldo não ficar negativo (0 linhas = saldo insuficiente)
+    @Modifying
+    @Query(value = "UPDATE site_stocks SET quantity = quantity + :delta "
+            + "WHERE site_id = :siteId AND raw_material_id = :rawMaterialId AND quantity + :delta >= 0",
+            nativeQuery = true)
+    int removeStock(@Param("siteId") Long siteId, @Param("rawMaterialId") Long rawMaterialId, @Param("delta") int delta);
+}
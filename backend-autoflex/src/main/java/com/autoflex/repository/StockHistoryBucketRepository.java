@@ -0,0 +1,28 @@
+package com.autoflex.repository;
+
+import com.autoflex.model.StockHistoryBucket;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StockHistoryBucketRepository extends ListCrudRepository<StockHistoryBucket, Long> {
+
+    Optional<StockHistoryBucket> findBySeriesTypeAndSeriesIdAndBucketStart(
+            String seriesType, Long seriesId, Long bucketStart);
+
+    // Último dia anterior com amostras: dá o valor em vigor no início do dia seguinte
+    Optional<StockHistoryBucket> findFirstBySeriesTypeAndSeriesIdAndBucketStartLessThanOrderByBucketStartDesc(
+            String seriesType, Long seriesId, Long bucketStart);
+
+    List<StockHistoryBucket> findBySeriesTypeAndSeriesIdAndBucketStartBetweenOrderByBucketStart(
+            String seriesType, Long seriesId, Long from, Long to);
+
+    @Modifying
+    @Query("delete from StockHistoryBucket b where b.bucketStart < :cutoff")
+    int deleteOlderThan(@Param("cutoff") Long cutoff);
+}
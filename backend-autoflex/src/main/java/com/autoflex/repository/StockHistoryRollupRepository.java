@@ -0,0 +1,25 @@
+package com.autoflex.repository;
+
+import com.autoflex.model.StockHistoryRollup;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StockHistoryRollupRepository extends ListCrudRepository<StockHistoryRollup, Long> {
+
+    Optional<StockHistoryRollup> findBySeriesTypeAndSeriesIdAndResolutionAndBucketStart(
+            String seriesType, Long seriesId, String resolution, Long bucketStart);
+
+    // Coberta pela restrição única (series_type, series_id, resolution, bucket_start)
+    List<StockHistoryRollup> findBySeriesTypeAndSeriesIdAndResolutionAndBucketStartBetweenOrderByBucketStart(
+            String seriesType, Long seriesId, String resolution, Long from, Long to);
+
+    @Modifying
+    @Query("delete from StockHistoryRollup r where r.resolution = :resolution and r.bucketStart < :cutoff")
+    int deleteOlderThan(@Param("resolution") String resolution, @Param("cutoff") Long cutoff);
+}
@@ -0,0 +1,187 @@
+package com.autoflex.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.autoflex.config.ReplicaRoutingDataSource;
+import com.autoflex.model.Product;
+import com.autoflex.model.ProductMaterial;
+import com.autoflex.model.RawMaterial;
+
+/**
+ * Gargalos de produção: qual matéria-prima limita cada produto e quanto vale ter mais dela.
+ *
+ * Uma passada pela BOM com o estoque atual acha, para cada produto, a matéria-prima
+ * que define o máximo produzível (a de menor estoque/necessidade) e a segunda
+ * restrição. Por matéria-prima acumula:
+ * - blockedValue: valor liberado se o estoque dela subisse até a segunda restrição
+ *   de cada produto que ela trava (produtos de uma matéria-prima só não entram, pois
+ *   não têm segunda restrição; são contados em soleConstraintProducts);
+ * - marginalValue: valor por unidade extra no melhor uso (maior valor/quantidade exigida
+ *   entre os produtos que ela trava), válido até a folga desse produto acabar.
+ *
+ * Num empate (outra matéria-prima permite o mesmo máximo) mais estoque de uma só não
+ * libera nenhuma unidade: o produto conta em coBindingProducts e não entra em
+ * marginalValue nem em stockForNextUnit (null quando todos os produtos dela empatam).
+ *
+ * O resultado fica em cache pela versão do catálogo, como o resumo do dashboard.
+ */
+@Service
+public class BottleneckService {
+
+    private static final int TOP_PRODUCTS = 5;
+
+    private record CachedAnalysis(long version, Map<String, Object> analysis) {}
+
+    // Acumulado por matéria-prima durante a passada
+    private static final class MaterialStats {
+        final RawMaterial material;
+        int boundProducts;
+        int soleConstraintProducts;
+        int coBindingProducts;
+        BigDecimal blockedValue = BigDecimal.ZERO;
+        BigDecimal marginalValue = BigDecimal.ZERO;
+        long stockForNextUnit = Long.MAX_VALUE;
+        final List<Map<String, Object>> products = new ArrayList<>();
+
+        MaterialStats(RawMaterial material) {
+            this.material = material;
+        }
+    }
+
+    private final ProductionService productionService;
+    private final CatalogVersion catalogVersion;
+
+    private volatile CachedAnalysis cached;
+
+    public BottleneckService(ProductionService productionService, CatalogVersion catalogVersion) {
+        this.productionService = productionService;
+        this.catalogVersion = catalogVersion;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getBottlenecks() {
+        long version = catalogVersion.current();
+        CachedAnalysis current = cached;
+        if (current != null && current.version() == version) {
+            return current.analysis();
+        }
+        // Primário: o resultado fica no cache sob esta versão, e a réplica pode ainda não tê-la
+        Map<String, Object> analysis = analyze(ReplicaRoutingDataSource.onPrimary(productionService::loadSnapshot));
+        analysis.put("catalogVersion", version);
+        cached = new CachedAnalysis(version, analysis);
+        return analysis;
+    }
+
+    static Map<String, Object> analyze(ProductionService.CatalogSnapshot snapshot) {
+        Map<Long, RawMaterial> materialsById = new HashMap<>();
+        snapshot.rawMaterials().forEach(material -> materialsById.put(material.getId(), material));
+
+        Map<Long, MaterialStats> stats = new HashMap<>();
+        int analyzed = 0;
+
+        for (Product product : snapshot.products()) {
+            List<ProductMaterial> bom = snapshot.bomByProduct().getOrDefault(product.getId(), List.of());
+            if (bom.isEmpty() || product.getValue() == null) continue;
+            analyzed++;
+
+            // Menor e segunda menor quantidade de unidades que cada matéria-prima permite
+            ProductMaterial binding = null;
+            long best = Long.MAX_VALUE;
+            long second = Long.MAX_VALUE;
+            Long secondMaterialId = null;
+            for (ProductMaterial line : bom) {
+                int required = line.getRequiredQuantity();
+                if (required <= 0) continue;
+                long units = snapshot.stock().getOrDefault(line.getRawMaterial().getId(), 0) / required;
+                if (units < best) {
+                    if (binding != null) {
+                        second = best;
+                        secondMaterialId = binding.getRawMaterial().getId();
+                    }
+                    best = units;
+                    binding = line;
+                } else if (units < second) {
+                    second = units;
+                    secondMaterialId = line.getRawMaterial().getId();
+                }
+            }
+            if (binding == null) continue;
+
+            Long materialId = binding.getRawMaterial().getId();
+            RawMaterial material = materialsById.get(materialId);
+            if (material == null) continue;
+            MaterialStats entry = stats.computeIfAbsent(materialId, id -> new MaterialStats(material));
+
+            int required = binding.getRequiredQuantity();
+            long available = snapshot.stock().getOrDefault(materialId, 0);
+            BigDecimal value = product.getValue();
+
+            entry.boundProducts++;
+            boolean coBinding = second == best;
+            if (coBinding) {
+                entry.coBindingProducts++;
+            } else {
+                BigDecimal perUnit = value.divide(BigDecimal.valueOf(required), 4, RoundingMode.HALF_UP);
+                if (perUnit.compareTo(entry.marginalValue) > 0) entry.marginalValue = perUnit;
+                entry.stockForNextUnit = Math.min(entry.stockForNextUnit, (best + 1) * required - available);
+            }
+
+            Map<String, Object> detail = new LinkedHashMap<>();
+            detail.put("productId", product.getId());
+            detail.put("code", product.getCode());
+            detail.put("name", product.getName());
+            detail.put("maxQuantity", best);
+            detail.put("coBinding", coBinding);
+
+            if (second == Long.MAX_VALUE) {
+                entry.soleConstraintProducts++;
+                detail.put("blockedValue", BigDecimal.ZERO);
+            } else {
+                BigDecimal blocked = value.multiply(BigDecimal.valueOf(second - best));
+                entry.blockedValue = entry.blockedValue.add(blocked);
+                detail.put("nextConstraintMaterialId", secondMaterialId);
+                detail.put("nextConstraintQuantity", second);
+                detail.put("extraStockToNextConstraint", second * required - available);
+                detail.put("blockedValue", blocked);
+            }
+            entry.products.add(detail);
+        }
+
+        List<Map<String, Object>> ranking = new ArrayList<>();
+        stats.values().stream()
+                .sorted(Comparator.comparing((MaterialStats s) -> s.blockedValue).reversed()
+                        .thenComparing(s -> s.marginalValue, Comparator.reverseOrder()))
+                .forEach(s -> {
+                    s.products.sort(Comparator.comparing(
+                            (Map<String, Object> p) -> (BigDecimal) p.get("blockedValue")).reversed());
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("rawMaterialId", s.material.getId());
+                    row.put("code", s.material.getCode());
+                    row.put("name", s.material.getName());
+                    row.put("available", snapshot.stock().getOrDefault(s.material.getId(), 0));
+                    row.put("boundProducts", s.boundProducts);
+                    row.put("soleConstraintProducts", s.soleConstraintProducts);
+                    row.put("coBindingProducts", s.coBindingProducts);
+                    row.put("blockedValue", s.blockedValue);
+                    row.put("marginalValue", s.marginalValue);
+                    row.put("stockForNextUnit", s.stockForNextUnit == Long.MAX_VALUE ? null : s.stockForNextUnit);
+                    row.put("topProducts", List.copyOf(s.products.subList(0, Math.min(TOP_PRODUCTS, s.products.size()))));
+                    ranking.add(row);
+                });
+
+        Map<String, Object> analysis = new LinkedHashMap<>();
+        analysis.put("analyzedProducts", analyzed);
+        analysis.put("materials", ranking);
+        return analysis;
+    }
+}
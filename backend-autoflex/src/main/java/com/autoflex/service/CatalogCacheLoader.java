@@ -0,0 +1,114 @@
+package com.autoflex.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.autoflex.config.ReplicaRoutingDataSource;
+import com.autoflex.event.CatalogChangeEvent;
+
+/**
+ * Carga preguiçosa de um cache do catálogo mantido por eventos de alteração.
+ *
+ * A leitura do banco acontece sem lock; eventos que chegam enquanto ela roda ficam
+ * pendentes e são reaplicados depois da publicação, para nenhuma alteração
+ * confirmada no meio da leitura se perder. Uma invalidação durante a carga descarta
+ * o resultado. Reaplicações da mesma entidade são serializadas, para uma releitura
+ * mais antiga não sobrescrever uma mais nova. Leituras e releituras vão sempre ao
+ * primário: o cache sobrevive à requisição e a réplica pode não ter a alteração ainda.
+ *
+ * @param <S> o que a leitura do banco devolve e a publicação instala no cache
+ */
+final class CatalogCacheLoader<S> {
+
+    private static final int APPLY_STRIPES = 64;
+
+    private final Supplier<S> reader;
+    private final Consumer<S> publisher;
+    private final Runnable clearer;
+    private final Consumer<CatalogChangeEvent> applier;
+
+    private final Object loadLock = new Object();
+    private final Object[] applyLocks = new Object[APPLY_STRIPES];
+    private volatile boolean loaded = false;
+
+    // Protegidos pelo monitor do objeto
+    private boolean loading = false;
+    private boolean invalidatedDuringLoad = false;
+    private final List<CatalogChangeEvent> pendingDuringLoad = new ArrayList<>();
+
+    /**
+     * @param reader    lê o estado confirmado do banco
+     * @param publisher instala o resultado no cache, substituindo o conteúdo anterior
+     * @param clearer   esvazia o cache
+     * @param applier   relê e aplica uma única alteração
+     */
+    CatalogCacheLoader(Supplier<S> reader, Consumer<S> publisher, Runnable clearer,
+                       Consumer<CatalogChangeEvent> applier) {
+        this.reader = reader;
+        this.publisher = publisher;
+        this.clearer = clearer;
+        this.applier = applier;
+        for (int i = 0; i < APPLY_STRIPES; i++) applyLocks[i] = new Object();
+    }
+
+    void ensureLoaded() {
+        if (!loaded) load();
+    }
+
+    void onChange(CatalogChangeEvent event) {
+        synchronized (this) {
+            if (loading) {
+                pendingDuringLoad.add(event);
+                return;
+            }
+            if (!loaded) return; // a próxima carga já lê o estado confirmado
+        }
+        apply(event);
+    }
+
+    synchronized void invalidate() {
+        loaded = false;
+        clearer.run();
+        if (loading) invalidatedDuringLoad = true;
+    }
+
+    private void load() {
+        synchronized (loadLock) {
+            if (loaded) return;
+            synchronized (this) {
+                loading = true;
+                invalidatedDuringLoad = false;
+            }
+            S snapshot = null;
+            boolean read = false;
+            List<CatalogChangeEvent> replay;
+            try {
+                snapshot = ReplicaRoutingDataSource.onPrimary(reader);
+                read = true;
+            } finally {
+                synchronized (this) {
+                    boolean valid = read && !invalidatedDuringLoad;
+                    if (valid) {
+                        publisher.accept(snapshot);
+                        loaded = true;
+                    }
+                    loading = false;
+                    replay = valid ? new ArrayList<>(pendingDuringLoad) : List.of();
+                    pendingDuringLoad.clear();
+                }
+            }
+            // Alterações confirmadas enquanto a carga lia o banco: relidas agora, por id
+            replay.forEach(this::apply);
+        }
+    }
+
+    private void apply(CatalogChangeEvent event) {
+        int stripe = Math.floorMod(Objects.hash(event.entity(), event.id()), APPLY_STRIPES);
+        synchronized (applyLocks[stripe]) {
+            ReplicaRoutingDataSource.runOnPrimary(() -> applier.accept(event));
+        }
+    }
+}
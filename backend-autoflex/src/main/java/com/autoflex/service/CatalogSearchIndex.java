@@ -0,0 +1,322 @@
+package com.autoflex.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice em memória sobre código e nome, usado pelas buscas de produtos e matérias-primas.
+ * Prefixos saem de mapas ordenados (sem varrer o catálogo); a busca tolerante a erros
+ * usa trigramas para achar candidatos e distância de edição limitada para confirmar.
+ *
+ * A busca tolerante não é exaustiva. Ficam de fora: consultas com menos de
+ * {@value #MIN_FUZZY_LENGTH} caracteres; termos que compartilham menos da metade dos
+ * trigramas da consulta (duas edições próximas numa consulta curta, ex. "prafuzo" para
+ * "parafuso"); e itens já achados por prefixo, que mantêm a nota do prefixo.
+ */
+public class CatalogSearchIndex {
+
+    public record Entry(Long id, String code, String name) {}
+
+    public record Hit(Entry entry, int score) {}
+
+    // Os melhores acertos até o limite pedido, e quantos houve no total (um piso quando totalExact é falso)
+    public record Result(List<Hit> hits, int total, boolean totalExact) {}
+
+    private static final Comparator<Hit> RELEVANCE = Comparator.comparingInt(Hit::score).reversed()
+            .thenComparing(h -> h.entry().code());
+
+    private static final int SCORE_EXACT_CODE = 100;
+    private static final int SCORE_CODE_PREFIX = 80;
+    private static final int SCORE_NAME_PREFIX = 60;
+    private static final int SCORE_WORD_PREFIX = 50;
+    private static final int SCORE_FUZZY = 40;
+    // Abaixo disso quase todo termo compartilha um trigrama com a consulta e a busca tolerante viraria varredura
+    private static final int MIN_FUZZY_LENGTH = 4;
+    // Quantos itens distintos uma busca examina antes de parar; consultas de uma ou duas letras casam quase tudo
+    static final int MAX_COUNTED = 5_000;
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<Long, List<String>> termsById = new HashMap<>();
+    private final TreeMap<String, Set<Long>> codeTerms = new TreeMap<>();
+    private final TreeMap<String, Set<Long>> nameTerms = new TreeMap<>();
+    private final TreeMap<String, Set<Long>> wordTerms = new TreeMap<>();
+    private final Map<String, Set<Long>> trigrams = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void upsert(Long id, String code, String name) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+            Entry entry = new Entry(id, code, name);
+            entries.put(id, entry);
+
+            String normalizedCode = normalize(code);
+            String normalizedName = normalize(name);
+            List<String> terms = new ArrayList<>();
+            add(codeTerms, normalizedCode, id);
+            add(nameTerms, normalizedName, id);
+            terms.add(normalizedCode);
+            for (String word : words(normalizedName)) {
+                add(wordTerms, word, id);
+                terms.add(word);
+            }
+            for (String term : terms) {
+                for (String trigram : trigrams(term)) {
+                    trigrams.computeIfAbsent(trigram, k -> new HashSet<>()).add(id);
+                }
+            }
+            termsById.put(id, terms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            termsById.clear();
+            codeTerms.clear();
+            nameTerms.clear();
+            wordTerms.clear();
+            trigrams.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retorna até {@code limit} resultados, ordenados por relevância e depois por código.
+     *
+     * As faixas de nota são percorridas da maior para a menor (código exato, prefixo de
+     * código, de nome, de palavra, tolerante), em ordem de termo dentro de cada uma; a
+     * primeira nota vista de um item já é a maior dele. Os acertos passam por um heap de
+     * {@code limit} posições, e a varredura para depois de {@link #MAX_COUNTED} itens
+     * distintos: aí o total é só um piso e, na faixa onde parou, entram os primeiros
+     * termos em ordem alfabética.
+     */
+    public Result search(String query, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) {
+            return new Result(List.of(), 0, true);
+        }
+
+        lock.readLock().lock();
+        try {
+            TopHits top = new TopHits(limit, Math.max(limit, MAX_COUNTED));
+            boolean open = top.offerAll(codeTerms.getOrDefault(q, Set.of()), SCORE_EXACT_CODE)
+                    && collectPrefix(codeTerms, q, SCORE_CODE_PREFIX, top)
+                    && collectPrefix(nameTerms, q, SCORE_NAME_PREFIX, top)
+                    && collectPrefix(wordTerms, q, SCORE_WORD_PREFIX, top);
+
+            if (open && q.length() >= MIN_FUZZY_LENGTH) {
+                collectFuzzy(q, top);
+            }
+            return top.result();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // false quando o limite de itens examinados foi atingido
+    private boolean collectPrefix(TreeMap<String, Set<Long>> terms, String prefix, int score, TopHits top) {
+        for (Set<Long> ids : terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            if (!top.offerAll(ids, score)) return false;
+        }
+        return true;
+    }
+
+    private void collectFuzzy(String q, TopHits top) {
+        int maxEdits = q.length() <= 5 ? 1 : 2;
+        Set<String> queryTrigrams = trigrams(q);
+        // Cada edição destrói no máximo 3 trigramas. Exigir também metade dos trigramas da consulta
+        // mantém a lista de candidatos pequena; com 2 edições concentradas alguns acertos raros se perdem
+        int minShared = Math.max((queryTrigrams.size() + 1) / 2, queryTrigrams.size() - 3 * maxEdits);
+
+        Map<Long, Integer> shared = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            for (Long id : trigrams.getOrDefault(trigram, Set.of())) {
+                shared.merge(id, 1, Integer::sum);
+            }
+        }
+
+        List<Hit> fuzzy = new ArrayList<>();
+        for (Map.Entry<Long, Integer> candidate : shared.entrySet()) {
+            if (candidate.getValue() < minShared || top.seen(candidate.getKey())) continue;
+            int best = Integer.MAX_VALUE;
+            for (String term : termsById.getOrDefault(candidate.getKey(), List.of())) {
+                // Compara também com o prefixo do termo, para "parafus" casar com "parafuzo"
+                String target = term.length() > q.length() + maxEdits ? term.substring(0, q.length()) : term;
+                best = Math.min(best, boundedDistance(q, target, maxEdits));
+            }
+            if (best <= maxEdits) {
+                fuzzy.add(new Hit(entries.get(candidate.getKey()), SCORE_FUZZY - 10 * best));
+            }
+        }
+        // Os mais próximos primeiro, para o limite de itens examinados cortar só os piores
+        fuzzy.sort(RELEVANCE);
+        for (Hit hit : fuzzy) {
+            if (!top.offer(hit.entry().id(), hit.score())) return;
+        }
+    }
+
+    private void removeUnlocked(Long id) {
+        Entry old = entries.remove(id);
+        List<String> terms = termsById.remove(id);
+        if (old == null) return;
+
+        remove(codeTerms, normalize(old.code()), id);
+        remove(nameTerms, normalize(old.name()), id);
+        for (String word : words(normalize(old.name()))) {
+            remove(wordTerms, word, id);
+        }
+        if (terms != null) {
+            for (String term : terms) {
+                for (String trigram : trigrams(term)) {
+                    Set<Long> ids = trigrams.get(trigram);
+                    if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                        trigrams.remove(trigram);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void add(Map<String, Set<Long>> map, String key, Long id) {
+        if (key.isEmpty()) return;
+        map.computeIfAbsent(key, k -> new HashSet<>()).add(id);
+    }
+
+    private static void remove(Map<String, Set<Long>> map, String key, Long id) {
+        Set<Long> ids = map.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            map.remove(key);
+        }
+    }
+
+    static String normalize(String value) {
+        if (value == null) return "";
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        return decomposed.replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT).trim();
+    }
+
+    private static List<String> words(String normalized) {
+        List<String> words = new ArrayList<>();
+        for (String word : normalized.split("[^\\p{Alnum}]+")) {
+            if (!word.isEmpty()) words.add(word);
+        }
+        return words;
+    }
+
+    private static Set<String> trigrams(String term) {
+        String padded = "  " + term + " ";
+        Set<String> result = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            result.add(padded.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    // Heap com o menos relevante no topo: cada acerto melhor que ele o substitui
+    private final class TopHits {
+        private final int limit;
+        private final int maxCounted;
+        private final Set<Long> counted = new HashSet<>();
+        private final PriorityQueue<Hit> heap;
+        private boolean truncated = false;
+
+        TopHits(int limit, int maxCounted) {
+            this.limit = limit;
+            this.maxCounted = maxCounted;
+            this.heap = new PriorityQueue<>(Math.min(limit, 1_024), RELEVANCE.reversed());
+        }
+
+        boolean seen(Long id) {
+            return counted.contains(id);
+        }
+
+        boolean offerAll(Set<Long> ids, int score) {
+            for (Long id : ids) {
+                if (!offer(id, score)) return false;
+            }
+            return true;
+        }
+
+        // Ids já vistos vieram de uma faixa de nota maior e são ignorados
+        boolean offer(Long id, int score) {
+            if (counted.contains(id)) return true;
+            if (counted.size() >= maxCounted) {
+                truncated = true;
+                return false;
+            }
+            counted.add(id);
+            Hit hit = new Hit(entries.get(id), score);
+            if (heap.size() < limit) {
+                heap.add(hit);
+            } else if (RELEVANCE.compare(hit, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(hit);
+            }
+            return true;
+        }
+
+        Result result() {
+            List<Hit> hits = new ArrayList<>(heap);
+            hits.sort(RELEVANCE);
+            return new Result(hits, counted.size(), !truncated);
+        }
+    }
+
+    // Levenshtein com corte: devolve max + 1 assim que a distância passa do limite
+    private static int boundedDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) return max + 1;
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) previous[j] = j;
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) return max + 1;
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
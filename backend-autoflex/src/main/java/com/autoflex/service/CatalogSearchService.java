@@ -0,0 +1,166 @@
+package com.autoflex.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.autoflex.event.CatalogChangeEvent;
+import com.autoflex.event.CatalogResyncEvent;
+import com.autoflex.event.RemoteCatalogChangeEvent;
+import com.autoflex.repository.ProductRepository;
+import com.autoflex.repository.RawMaterialRepository;
+
+/**
+ * Busca por código e nome de produtos e matérias-primas.
+ * Os índices são montados na primeira busca e depois acompanham cada escrita
+ * através dos eventos de alteração do catálogo.
+ */
+@Service
+public class CatalogSearchService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+    // Páginas além disso não são úteis numa busca e só aumentariam o heap de resultados
+    private static final int MAX_RESULT_WINDOW = 10_000;
+
+    /**
+     * Índice com carga preguiçosa: montado fora de lock num índice novo e trocado
+     * de uma vez; alterações do meio da carga são reaplicadas pelo {@link CatalogCacheLoader}.
+     */
+    private static final class LiveIndex {
+
+        private volatile CatalogSearchIndex index = new CatalogSearchIndex();
+        private final CatalogCacheLoader<CatalogSearchIndex> loader;
+
+        LiveIndex(Consumer<CatalogSearchIndex> filler, Consumer<CatalogChangeEvent> refresher) {
+            this.loader = new CatalogCacheLoader<>(
+                    () -> {
+                        CatalogSearchIndex fresh = new CatalogSearchIndex();
+                        filler.accept(fresh);
+                        return fresh;
+                    },
+                    fresh -> index = fresh,
+                    () -> index = new CatalogSearchIndex(),
+                    refresher);
+        }
+
+        CatalogSearchIndex index() {
+            return index;
+        }
+
+        CatalogSearchIndex ready() {
+            loader.ensureLoaded();
+            return index;
+        }
+
+        void onChange(CatalogChangeEvent event) {
+            loader.onChange(event);
+        }
+
+        void invalidate() {
+            loader.invalidate();
+        }
+    }
+
+    private final ProductRepository productRepository;
+    private final RawMaterialRepository rawMaterialRepository;
+
+    private final LiveIndex products;
+    private final LiveIndex rawMaterials;
+
+    public CatalogSearchService(ProductRepository productRepository,
+                                RawMaterialRepository rawMaterialRepository) {
+        this.productRepository = productRepository;
+        this.rawMaterialRepository = rawMaterialRepository;
+        this.products = new LiveIndex(
+                index -> productRepository.findAll().forEach(p -> index.upsert(p.getId(), p.getCode(), p.getName())),
+                this::refreshProduct);
+        this.rawMaterials = new LiveIndex(
+                index -> rawMaterialRepository.findAll().forEach(m -> index.upsert(m.getId(), m.getCode(), m.getName())),
+                this::refreshRawMaterial);
+    }
+
+    public Map<String, Object> searchProducts(String query, int page, int size) {
+        return search(products.ready(), query, page, size);
+    }
+
+    public Map<String, Object> searchRawMaterials(String query, int page, int size) {
+        return search(rawMaterials.ready(), query, page, size);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        switch (event.entity()) {
+            case PRODUCT -> products.onChange(event);
+            case RAW_MATERIAL -> rawMaterials.onChange(event);
+            default -> { }
+        }
+    }
+
+    @EventListener
+    public void onRemoteChange(RemoteCatalogChangeEvent event) {
+        onCatalogChange(event.change());
+    }
+
+    // Sem saber o que mudou: os índices são remontados na próxima busca
+    @EventListener
+    public void onResync(CatalogResyncEvent event) {
+        products.invalidate();
+        rawMaterials.invalidate();
+    }
+
+    private void refreshProduct(CatalogChangeEvent event) {
+        if (event.action() == CatalogChangeEvent.Action.DELETED) {
+            products.index().remove(event.id());
+        } else {
+            productRepository.findById(event.id()).ifPresentOrElse(
+                    p -> products.index().upsert(p.getId(), p.getCode(), p.getName()),
+                    () -> products.index().remove(event.id()));
+        }
+    }
+
+    private void refreshRawMaterial(CatalogChangeEvent event) {
+        if (event.action() == CatalogChangeEvent.Action.DELETED) {
+            rawMaterials.index().remove(event.id());
+        } else {
+            rawMaterialRepository.findById(event.id()).ifPresentOrElse(
+                    m -> rawMaterials.index().upsert(m.getId(), m.getCode(), m.getName()),
+                    () -> rawMaterials.index().remove(event.id()));
+        }
+    }
+
+    // Só os acertos até o fim da página pedida são ordenados (top-k), não todos
+    private static Map<String, Object> search(CatalogSearchIndex index, String query, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int pageNumber = Math.max(page, 0);
+        int limit = (int) Math.min((long) (pageNumber + 1) * pageSize, MAX_RESULT_WINDOW);
+        CatalogSearchIndex.Result result = index.search(query, limit);
+
+        List<CatalogSearchIndex.Hit> hits = result.hits();
+        int from = (int) Math.min((long) pageNumber * pageSize, hits.size());
+        int to = Math.min(from + pageSize, hits.size());
+
+        List<Map<String, Object>> content = hits.subList(from, to).stream()
+                .map(hit -> {
+                    Map<String, Object> map = new HashMap<>();
+                    map.put("id", hit.entry().id());
+                    map.put("code", hit.entry().code());
+                    map.put("name", hit.entry().name());
+                    map.put("score", hit.score());
+                    return map;
+                })
+                .toList();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("content", content);
+        response.put("page", pageNumber);
+        response.put("size", pageSize);
+        response.put("total", result.total());
+        response.put("totalExact", result.totalExact());
+        return response;
+    }
+}
@@ -0,0 +1,51 @@
+package com.autoflex.service;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.autoflex.event.CatalogChangeEvent;
+import com.autoflex.event.CatalogResyncEvent;
+import com.autoflex.event.RemoteCatalogChangeEvent;
+
+/**
+ * Contador que avança a cada alteração confirmada no catálogo (produtos, estoque ou BOM).
+ * Serve de chave para caches de resultados derivados e de ETag para os clientes.
+ *
+ * O contador vive só na memória e recomeça em 1 a cada boot; quem expõe a versão para
+ * fora (ETag) deve juntar {@link #instanceId()}, senão um reinício ou outra instância
+ * atrás do balanceador repetiria versões já vistas pelos clientes.
+ */
+@Component
+public class CatalogVersion {
+
+    private final AtomicLong version = new AtomicLong(1);
+    private final String instanceId = UUID.randomUUID().toString().substring(0, 8);
+
+    public long current() {
+        return version.get();
+    }
+
+    // Identifica este processo; muda a cada boot
+    public String instanceId() {
+        return instanceId;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        version.incrementAndGet();
+    }
+
+    @EventListener
+    public void onRemoteChange(RemoteCatalogChangeEvent event) {
+        version.incrementAndGet();
+    }
+
+    @EventListener
+    public void onResync(CatalogResyncEvent event) {
+        version.incrementAndGet();
+    }
+}
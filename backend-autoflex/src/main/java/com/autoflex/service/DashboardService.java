@@ -0,0 +1,81 @@
+package com.autoflex.service;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.autoflex.config.ReplicaRoutingDataSource;
+import com.autoflex.model.RawMaterial;
+
+/**
+ * Agregados do dashboard calculados no servidor. O resultado fica em cache
+ * enquanto a versão do catálogo não muda, então um dashboard parado custa
+ * apenas a leitura do cache. O recálculo lê do primário, para o cache não guardar
+ * uma réplica atrasada sob a versão nova.
+ */
+@Service
+public class DashboardService {
+
+    private record CachedSummary(long version, Map<String, Object> summary) {}
+
+    private final ProductionService productionService;
+    private final StockAlertService stockAlertService;
+    private final CatalogVersion catalogVersion;
+
+    private volatile CachedSummary cached;
+
+    public DashboardService(ProductionService productionService,
+                            StockAlertService stockAlertService,
+                            CatalogVersion catalogVersion) {
+        this.productionService = productionService;
+        this.stockAlertService = stockAlertService;
+        this.catalogVersion = catalogVersion;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getSummary() {
+        // A versão é lida antes do cálculo: se o catálogo mudar no meio, o próximo pedido recalcula
+        long version = catalogVersion.current();
+        CachedSummary current = cached;
+        if (current != null && current.version() == version) {
+            return current.summary();
+        }
+
+        ProductionService.CatalogSnapshot snapshot =
+                ReplicaRoutingDataSource.onPrimary(productionService::loadSnapshot);
+        List<Map<String, Object>> suggestions = productionService.computeSuggestions(snapshot);
+
+        BigDecimal totalProductionValue = BigDecimal.ZERO;
+        long totalProducibleUnits = 0;
+        for (Map<String, Object> suggestion : suggestions) {
+            totalProductionValue = totalProductionValue.add((BigDecimal) suggestion.get("totalValue"));
+            totalProducibleUnits += (Integer) suggestion.get("maxQuantity");
+        }
+
+        BigDecimal inventoryValue = BigDecimal.ZERO;
+        long totalStockUnits = 0;
+        for (RawMaterial material : snapshot.rawMaterials()) {
+            inventoryValue = inventoryValue.add(
+                    material.getUnitPrice().multiply(BigDecimal.valueOf(material.getQuantity())));
+            totalStockUnits += material.getQuantity();
+        }
+
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("catalogVersion", version);
+        summary.put("totalProducts", snapshot.products().size());
+        summary.put("totalRawMaterials", snapshot.rawMaterials().size());
+        summary.put("producibleProducts", suggestions.size());
+        summary.put("totalProducibleUnits", totalProducibleUnits);
+        summary.put("totalProductionValue", totalProductionValue);
+        summary.put("totalStockUnits", totalStockUnits);
+        summary.put("inventoryValue", inventoryValue);
+        summary.put("lowStockCount", stockAlertService.getAlertCount());
+
+        cached = new CachedSummary(version, summary);
+        return summary;
+    }
+}
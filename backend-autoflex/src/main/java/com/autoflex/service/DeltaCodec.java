@@ -0,0 +1,87 @@
+package com.autoflex.service;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Codificação compacta das amostras de uma série: cada amostra vira dois
+ * varints, o intervalo desde a anterior e a variação do valor (zigzag, para
+ * quedas de estoque ocuparem poucos bytes). Um ajuste típico cabe em 3 a 5 bytes.
+ *
+ * As amostras precisam estar em ordem de tempo: o intervalo é gravado sem sinal.
+ */
+public final class DeltaCodec {
+
+    public record Sample(long timestamp, long value) {}
+
+    private DeltaCodec() {}
+
+    // Codifica um bloco inteiro; a primeira amostra é relativa a (bucketStart, 0)
+    public static byte[] encode(long bucketStart, List<Sample> samples) {
+        return append(new byte[0], bucketStart, 0, samples);
+    }
+
+    /**
+     * Acrescenta amostras a um bloco existente; prevTimestamp/prevValue são os da última
+     * amostra do bloco.
+     *
+     * @throws IllegalArgumentException se alguma amostra for anterior à que a precede
+     */
+    public static byte[] append(byte[] data, long prevTimestamp, long prevValue, List<Sample> samples) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length + samples.size() * 6);
+        out.writeBytes(data);
+        for (Sample sample : samples) {
+            if (sample.timestamp() < prevTimestamp) {
+                throw new IllegalArgumentException("Amostra fora de ordem: " + sample.timestamp()
+                        + " é anterior a " + prevTimestamp);
+            }
+            writeVarLong(out, sample.timestamp() - prevTimestamp);
+            writeVarLong(out, zigzag(sample.value() - prevValue));
+            prevTimestamp = sample.timestamp();
+            prevValue = sample.value();
+        }
+        return out.toByteArray();
+    }
+
+    // Decodifica um bloco; a primeira amostra é relativa a (bucketStart, 0)
+    public static List<Sample> decode(byte[] data, long bucketStart) {
+        List<Sample> samples = new ArrayList<>();
+        long timestamp = bucketStart;
+        long value = 0;
+        int[] pos = { 0 };
+        while (pos[0] < data.length) {
+            timestamp += readVarLong(data, pos);
+            value += unzigzag(readVarLong(data, pos));
+            samples.add(new Sample(timestamp, value));
+        }
+        return samples;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    private static long readVarLong(byte[] data, int[] pos) {
+        long result = 0;
+        int shift = 0;
+        while (true) {
+            byte b = data[pos[0]++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+            shift += 7;
+        }
+    }
+
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
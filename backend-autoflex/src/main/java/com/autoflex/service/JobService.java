@@ -0,0 +1,60 @@
+package com.autoflex.service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.autoflex.job.JobHandler;
+import com.autoflex.model.Job;
+import com.autoflex.repository.JobRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Enfileira e consulta jobs. A execução fica com o {@link com.autoflex.job.JobWorkerPool},
+ * que pode estar desligado nesta instância (autoflex.jobs.workers.enabled=false).
+ */
+@Service
+@Transactional
+public class JobService {
+
+    private static final int MAX_ATTEMPTS_LIMIT = 10;
+
+    private final JobRepository jobRepository;
+    private final ObjectMapper objectMapper;
+    private final Set<String> knownTypes;
+
+    public JobService(JobRepository jobRepository, ObjectMapper objectMapper, List<JobHandler> handlers) {
+        this.jobRepository = jobRepository;
+        this.objectMapper = objectMapper;
+        this.knownTypes = handlers.stream().map(JobHandler::type).collect(Collectors.toUnmodifiableSet());
+    }
+
+    public Job enqueue(String type, JsonNode payload, Integer maxAttempts) {
+        if (type == null || !knownTypes.contains(type)) {
+            throw new IllegalArgumentException("Tipo de job desconhecido: " + type + ". Tipos disponíveis: " + knownTypes);
+        }
+        if (maxAttempts != null && (maxAttempts < 1 || maxAttempts > MAX_ATTEMPTS_LIMIT)) {
+            throw new IllegalArgumentException("maxAttempts deve estar entre 1 e " + MAX_ATTEMPTS_LIMIT);
+        }
+        Job job = new Job();
+        job.setType(type);
+        try {
+            job.setPayload(payload != null ? objectMapper.writeValueAsString(payload) : null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Payload inválido: " + e.getOriginalMessage());
+        }
+        if (maxAttempts != null) job.setMaxAttempts(maxAttempts);
+        return jobRepository.save(job);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Job> getById(Long id) {
+        return jobRepository.findById(id);
+    }
+}
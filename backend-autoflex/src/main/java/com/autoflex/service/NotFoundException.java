@@ -0,0 +1,12 @@
+package com.autoflex.service;
+
+/**
+ * Recurso pedido não existe (vira 404 no controller). Outras RuntimeException,
+ * como falhas de banco, continuam sendo erros do servidor.
+ */
+public class NotFoundException extends RuntimeException {
+
+    public NotFoundException(String message) {
+        super(message);
+    }
+}
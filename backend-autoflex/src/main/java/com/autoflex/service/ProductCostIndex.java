@@ -0,0 +1,227 @@
+package com.autoflex.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.autoflex.event.CatalogChangeEvent;
+import com.autoflex.event.CatalogResyncEvent;
+import com.autoflex.event.RemoteCatalogChangeEvent;
+import com.autoflex.model.Product;
+import com.autoflex.model.RawMaterial;
+import com.autoflex.repository.ProductMaterialRepository;
+import com.autoflex.repository.ProductRepository;
+import com.autoflex.repository.RawMaterialRepository;
+
+/**
+ * Custo de material por produto (Σ unitPrice × requiredQuantity), mantido de forma incremental.
+ *
+ * Valores em ponto fixo: longs com {@link #SCALE} casas decimais, então ranquear
+ * sugestões por margem não cria BigDecimal por linha. Mudança de preço aplica o
+ * delta aos produtos do índice reverso da BOM; mudança de BOM aplica só a
+ * diferença das linhas alteradas. Alteração de estoque não custa nada aqui.
+ */
+@Component
+public class ProductCostIndex {
+
+    public static final int SCALE = 4;
+
+    private final RawMaterialRepository rawMaterialRepository;
+    private final ProductRepository productRepository;
+    private final ProductMaterialRepository productMaterialRepository;
+
+    // Escritas sob o monitor do objeto; leituras de custo e valor sem lock
+    private final Map<Long, Long> unitPrice = new HashMap<>();
+    private final Map<Long, Map<Long, Integer>> bomByProduct = new HashMap<>();
+    private final Map<Long, Map<Long, Integer>> usedBy = new HashMap<>();
+    private final Map<Long, Long> materialCost = new ConcurrentHashMap<>();
+    private final Map<Long, Long> unitValue = new ConcurrentHashMap<>();
+    private final CatalogCacheLoader<Snapshot> loader;
+
+    // Estado lido do banco na carga, montado no índice só depois
+    private record Snapshot(Map<Long, Long> prices, Map<Long, Long> values, List<Object[]> bomLines) {}
+
+    public ProductCostIndex(RawMaterialRepository rawMaterialRepository,
+                            ProductRepository productRepository,
+                            ProductMaterialRepository productMaterialRepository) {
+        this.rawMaterialRepository = rawMaterialRepository;
+        this.productRepository = productRepository;
+        this.productMaterialRepository = productMaterialRepository;
+        this.loader = new CatalogCacheLoader<>(this::read, this::build, this::clear, this::apply);
+    }
+
+    public static long toFixed(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromFixed(long amount) {
+        return BigDecimal.valueOf(amount, SCALE);
+    }
+
+    // Custo de material de uma unidade do produto, ou null se o produto ainda não está no índice
+    public Long materialCost(Long productId) {
+        ensureLoaded();
+        return materialCost.get(productId);
+    }
+
+    public Long unitValue(Long productId) {
+        ensureLoaded();
+        return unitValue.get(productId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        loader.onChange(event);
+    }
+
+    @EventListener
+    public void onRemoteChange(RemoteCatalogChangeEvent event) {
+        onCatalogChange(event.change());
+    }
+
+    @EventListener
+    public void onResync(CatalogResyncEvent event) {
+        loader.invalidate();
+    }
+
+    // Lê o banco fora do monitor; só a alteração do índice acontece sob ele
+    private void apply(CatalogChangeEvent event) {
+        boolean deleted = event.action() == CatalogChangeEvent.Action.DELETED;
+        switch (event.entity()) {
+            case RAW_MATERIAL -> {
+                RawMaterial material = deleted ? null : rawMaterialRepository.findById(event.id()).orElse(null);
+                synchronized (this) {
+                    if (material == null) {
+                        removeMaterial(event.id());
+                    } else {
+                        applyPrice(event.id(), toFixed(material.getUnitPrice()));
+                    }
+                }
+            }
+            case PRODUCT_MATERIAL -> {
+                Map<Long, Integer> lines = new HashMap<>();
+                for (Object[] row : productMaterialRepository.findBomLinesByProductId(event.id())) {
+                    lines.merge((Long) row[0], (Integer) row[1], Integer::sum);
+                }
+                synchronized (this) {
+                    applyBom(event.id(), lines);
+                }
+            }
+            case PRODUCT -> {
+                Product product = deleted ? null : productRepository.findById(event.id()).orElse(null);
+                synchronized (this) {
+                    if (product == null) {
+                        applyBom(event.id(), Map.of());
+                        bomByProduct.remove(event.id());
+                        materialCost.remove(event.id());
+                        unitValue.remove(event.id());
+                    } else {
+                        unitValue.put(product.getId(), toFixed(product.getValue()));
+                        materialCost.putIfAbsent(product.getId(), 0L);
+                    }
+                }
+            }
+            default -> {
+                // estoque por planta não altera custo
+            }
+        }
+    }
+
+    private synchronized void clear() {
+        unitPrice.clear();
+        bomByProduct.clear();
+        usedBy.clear();
+        materialCost.clear();
+        unitValue.clear();
+    }
+
+    // Novo preço: delta × quantidade exigida em cada produto que usa a matéria-prima
+    private void applyPrice(Long rawMaterialId, long price) {
+        Long previous = unitPrice.put(rawMaterialId, price);
+        long delta = price - (previous != null ? previous : 0L);
+        if (delta == 0) return;
+        usedBy.getOrDefault(rawMaterialId, Map.of()).forEach((productId, required) ->
+                materialCost.merge(productId, delta * required, Long::sum));
+    }
+
+    // Matéria-prima excluída: sai do custo de quem ainda a referenciava
+    private void removeMaterial(Long rawMaterialId) {
+        applyPrice(rawMaterialId, 0L);
+        unitPrice.remove(rawMaterialId);
+        Map<Long, Integer> products = usedBy.remove(rawMaterialId);
+        if (products != null) {
+            products.keySet().forEach(productId -> {
+                Map<Long, Integer> bom = bomByProduct.get(productId);
+                if (bom != null) bom.remove(rawMaterialId);
+            });
+        }
+    }
+
+    // Só as linhas que mudaram entram no custo: (nova quantidade − antiga) × preço
+    private void applyBom(Long productId, Map<Long, Integer> lines) {
+        Map<Long, Integer> previous = bomByProduct.getOrDefault(productId, Map.of());
+        long delta = 0;
+
+        for (Map.Entry<Long, Integer> line : previous.entrySet()) {
+            if (!lines.containsKey(line.getKey())) {
+                delta -= unitPrice.getOrDefault(line.getKey(), 0L) * line.getValue();
+                Map<Long, Integer> users = usedBy.get(line.getKey());
+                if (users != null) {
+                    users.remove(productId);
+                    if (users.isEmpty()) usedBy.remove(line.getKey());
+                }
+            }
+        }
+        for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+            int before = previous.getOrDefault(line.getKey(), 0);
+            if (before != line.getValue()) {
+                delta += unitPrice.getOrDefault(line.getKey(), 0L) * (line.getValue() - before);
+                usedBy.computeIfAbsent(line.getKey(), k -> new HashMap<>()).put(productId, line.getValue());
+            }
+        }
+
+        if (lines.isEmpty()) {
+            bomByProduct.remove(productId);
+        } else {
+            bomByProduct.put(productId, new HashMap<>(lines));
+        }
+        materialCost.merge(productId, delta, Long::sum);
+    }
+
+    private void ensureLoaded() {
+        loader.ensureLoaded();
+    }
+
+    private Snapshot read() {
+        Map<Long, Long> prices = new HashMap<>();
+        Map<Long, Long> values = new HashMap<>();
+        rawMaterialRepository.findAll().forEach(m -> prices.put(m.getId(), toFixed(m.getUnitPrice())));
+        productRepository.findAll().forEach(p -> values.put(p.getId(), toFixed(p.getValue())));
+        return new Snapshot(prices, values, productMaterialRepository.findAllBomLines());
+    }
+
+    // Substitui o conteúdo inteiro, inclusive restos de uma carga anterior
+    private synchronized void build(Snapshot snapshot) {
+        clear();
+        unitPrice.putAll(snapshot.prices());
+        snapshot.values().forEach((productId, value) -> {
+            unitValue.put(productId, value);
+            materialCost.put(productId, 0L);
+        });
+        for (Object[] row : snapshot.bomLines()) {
+            Long productId = (Long) row[0];
+            Long rawMaterialId = (Long) row[1];
+            int required = (Integer) row[2];
+            bomByProduct.computeIfAbsent(productId, k -> new HashMap<>()).merge(rawMaterialId, required, Integer::sum);
+            usedBy.computeIfAbsent(rawMaterialId, k -> new HashMap<>()).merge(productId, required, Integer::sum);
+            materialCost.merge(productId, unitPrice.getOrDefault(rawMaterialId, 0L) * required, Long::sum);
+        }
+    }
+}
@@ -1,14 +1,23 @@
 package com.autoflex.service;  
 
+import com.autoflex.event.CatalogChangeEvent;
 import com.autoflex.model.Product;
 import com.autoflex.model.RawMaterial;
 import com.autoflex.model.ProductMaterial;
 import com.autoflex.repository.ProductMaterialRepository;
 import com.autoflex.repository.ProductRepository;
 import com.autoflex.repository.RawMaterialRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @Transactional
@@ -17,13 +26,22 @@ public class ProductMaterialService {
     private final ProductMaterialRepository productMaterialRepository;
     private final ProductRepository productRepository;
     private final RawMaterialRepository rawMaterialRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Linha da BOM desejada (corpo do PUT /products/{id}/materials)
+    public record MaterialLine(Long rawMaterialId, Integer requiredQuantity) {}
 
     public ProductMaterialService(ProductMaterialRepository productMaterialRepository,
                                   ProductRepository productRepository,
-                                  RawMaterialRepository rawMaterialRepository) {
+                                  RawMaterialRepository rawMaterialRepository,
+                                  JdbcTemplate jdbcTemplate,
+                                  ApplicationEventPublisher eventPublisher) {
         this.productMaterialRepository = productMaterialRepository;
         this.productRepository = productRepository;
         this.rawMaterialRepository = rawMaterialRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -63,4 +81,86 @@ public class ProductMaterialService {
         
         return productMaterialRepository.findByProductId(productId);
     }
+
+    /**
+     * Substitui a BOM inteira do produto. Compara a lista desejada com as linhas
+     * atuais (uma única consulta) e aplica apenas inserts, updates e deletes,
+     * cada grupo em um único batch JDBC, tudo na mesma transação.
+     */
+    @Transactional
+    public Map<String, Object> replaceMaterials(Long productId, List<MaterialLine> lines) {
+        if (!productRepository.existsById(productId)) {
+            throw new NotFoundException("Produto não encontrado com ID: " + productId);
+        }
+
+        Map<Long, Integer> desired = new LinkedHashMap<>();
+        for (MaterialLine line : lines) {
+            if (line.rawMaterialId() == null || line.requiredQuantity() == null || line.requiredQuantity() <= 0) {
+                throw new IllegalArgumentException("Cada linha precisa de rawMaterialId e requiredQuantity > 0");
+            }
+            if (desired.put(line.rawMaterialId(), line.requiredQuantity()) != null) {
+                throw new IllegalArgumentException("Matéria-prima repetida na BOM: " + line.rawMaterialId());
+            }
+        }
+
+        if (!desired.isEmpty()) {
+            Set<Long> missing = new HashSet<>(desired.keySet());
+            rawMaterialRepository.findExistingIds(desired.keySet()).forEach(missing::remove);
+            if (!missing.isEmpty()) {
+                throw new NotFoundException("Matéria-prima não encontrada com ID: " + missing);
+            }
+        }
+
+        Map<Long, Integer> current = new HashMap<>();
+        for (Object[] row : productMaterialRepository.findBomLinesByProductId(productId)) {
+            current.put((Long) row[0], (Integer) row[1]);
+        }
+
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+
+        desired.forEach((rawMaterialId, quantity) -> {
+            Integer existing = current.get(rawMaterialId);
+            if (existing == null) {
+                inserts.add(new Object[] { productId, rawMaterialId, quantity });
+            } else if (!existing.equals(quantity)) {
+                updates.add(new Object[] { quantity, productId, rawMaterialId });
+            }
+        });
+        current.keySet().stream()
+                .filter(rawMaterialId -> !desired.containsKey(rawMaterialId))
+                .forEach(rawMaterialId -> deletes.add(new Object[] { productId, rawMaterialId }));
+
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "DELETE FROM product_materials WHERE product_id = ? AND raw_material_id = ?", deletes);
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE product_materials SET required_quantity = ? WHERE product_id = ? AND raw_material_id = ?",
+                    updates);
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO product_materials (product_id, raw_material_id, required_quantity) VALUES (?, ?, ?)",
+                    inserts);
+        }
+
+        // Os batches JDBC não passam pelos listeners JPA, então o evento é publicado aqui
+        if (!inserts.isEmpty() || !updates.isEmpty() || !deletes.isEmpty()) {
+            eventPublisher.publishEvent(new CatalogChangeEvent(
+                    CatalogChangeEvent.Entity.PRODUCT_MATERIAL, productId, CatalogChangeEvent.Action.UPDATED));
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("productId", productId);
+        result.put("inserted", inserts.size());
+        result.put("updated", updates.size());
+        result.put("deleted", deletes.size());
+        result.put("materials", desired.entrySet().stream()
+                .map(e -> new MaterialLine(e.getKey(), e.getValue()))
+                .toList());
+        return result;
+    }
 }
@@ -0,0 +1,293 @@
+package com.autoflex.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.autoflex.model.Product;
+import com.autoflex.model.ProductMaterial;
+import com.autoflex.model.RawMaterial;
+import com.autoflex.repository.ProductMaterialRepository;
+import com.autoflex.repository.ProductRepository;
+import com.autoflex.repository.RawMaterialRepository;
+
+@Service
+@Transactional(readOnly = true)
+public class ProductionService {
+
+    // Catálogo carregado uma vez por cálculo: produtos, estoque e BOM agrupada por produto
+    public record CatalogSnapshot(List<Product> products,
+                                  List<RawMaterial> rawMaterials,
+                                  Map<Long, List<ProductMaterial>> bomByProduct,
+                                  Map<Long, Integer> stock) {
+
+        // Mesmo catálogo com outro estoque (de uma planta ou somado entre plantas)
+        public CatalogSnapshot withStock(Map<Long, Integer> otherStock) {
+            return new CatalogSnapshot(products, rawMaterials, bomByProduct, otherStock);
+        }
+    }
+
+    // Critério de ordenação das sugestões: valor bruto, margem unitária ou lucro total
+    public enum SuggestionSort {
+        VALUE, MARGIN, PROFIT;
+
+        public static SuggestionSort from(String value) {
+            if (value == null || value.isBlank()) return VALUE;
+            try {
+                return valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Ordenação inválida: " + value + ". Use value, margin ou profit");
+            }
+        }
+    }
+
+    private record RankedSuggestion(long key, long totalValue, Map<String, Object> suggestion) {}
+
+    private final ProductRepository productRepository;
+    private final RawMaterialRepository rawMaterialRepository;
+    private final ProductMaterialRepository productMaterialRepository;
+    private final SiteStockService siteStockService;
+    private final ProductCostIndex productCostIndex;
+    // Pool próprio (não é bean, para não substituir o executor padrão do Spring)
+    private final ExecutorService planningExecutor;
+
+    public ProductionService(ProductRepository productRepository,
+                             RawMaterialRepository rawMaterialRepository,
+                             ProductMaterialRepository productMaterialRepository,
+                             SiteStockService siteStockService,
+                             ProductCostIndex productCostIndex,
+                             @Value("${autoflex.planning.parallelism:0}") int parallelism) {
+        this.productRepository = productRepository;
+        this.rawMaterialRepository = rawMaterialRepository;
+        this.productMaterialRepository = productMaterialRepository;
+        this.siteStockService = siteStockService;
+        this.productCostIndex = productCostIndex;
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.planningExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "planning-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        planningExecutor.shutdown();
+    }
+
+    public CatalogSnapshot loadSnapshot() {
+        List<Product> products = productRepository.findAll();
+        List<RawMaterial> rawMaterials = rawMaterialRepository.findAll();
+        Map<Long, List<ProductMaterial>> bomByProduct = productMaterialRepository.findAll().stream()
+                .collect(Collectors.groupingBy(pm -> pm.getProduct().getId()));
+        Map<Long, Integer> stock = rawMaterials.stream()
+                .collect(Collectors.toMap(RawMaterial::getId, RawMaterial::getQuantity));
+        return new CatalogSnapshot(products, rawMaterials, bomByProduct, stock);
+    }
+
+    public List<Map<String, Object>> getSuggestions(SuggestionSort sort) {
+        return computeSuggestions(loadSnapshot(), sort);
+    }
+
+    // Sugestões com o estoque de uma planta
+    public List<Map<String, Object>> getSuggestionsForSite(Long siteId, SuggestionSort sort) {
+        return computeSuggestions(loadSnapshot().withStock(siteStockService.stockForSite(siteId)), sort);
+    }
+
+    // Sugestões com o estoque somado de todas as plantas
+    public List<Map<String, Object>> getSuggestionsAcrossSites(SuggestionSort sort) {
+        return computeSuggestions(loadSnapshot().withStock(siteStockService.aggregatedStock()), sort);
+    }
+
+    /**
+     * Sugestões de todas as plantas. Catálogo e estoques são lidos uma vez; cada
+     * planta vira uma partição independente calculada em paralelo, sem acesso ao banco.
+     */
+    public Map<Long, List<Map<String, Object>>> getSuggestionsBySite(SuggestionSort sort) {
+        CatalogSnapshot snapshot = loadSnapshot();
+        Map<Long, Map<Long, Integer>> stockBySite = siteStockService.stockBySite();
+
+        Map<Long, CompletableFuture<List<Map<String, Object>>>> partitions = new LinkedHashMap<>();
+        stockBySite.forEach((siteId, stock) -> partitions.put(siteId, CompletableFuture.supplyAsync(
+                () -> computeSuggestions(snapshot.withStock(stock), sort), planningExecutor)));
+
+        Map<Long, List<Map<String, Object>>> result = new LinkedHashMap<>();
+        partitions.forEach((siteId, future) -> result.put(siteId, future.join()));
+        return result;
+    }
+
+    public List<Map<String, Object>> computeSuggestions(CatalogSnapshot snapshot) {
+        return computeSuggestions(snapshot, SuggestionSort.VALUE);
+    }
+
+    /**
+     * Custo, margem e lucro vêm do {@link ProductCostIndex} em ponto fixo; a ordenação
+     * compara longs e BigDecimal só é criado para os campos da resposta.
+     */
+    public List<Map<String, Object>> computeSuggestions(CatalogSnapshot snapshot, SuggestionSort sort) {
+        List<RankedSuggestion> ranked = new ArrayList<>();
+
+        for (Product product : snapshot.products()) {
+            List<ProductMaterial> materials = snapshot.bomByProduct().getOrDefault(product.getId(), List.of());
+            if (materials.isEmpty()) continue;
+
+            int maxQuantity = maxProducible(materials, snapshot.stock());
+            if (maxQuantity <= 0) continue;
+
+            Long indexedValue = productCostIndex.unitValue(product.getId());
+            long unitValue = indexedValue != null ? indexedValue : ProductCostIndex.toFixed(product.getValue());
+            Long indexedCost = productCostIndex.materialCost(product.getId());
+            long unitCost = indexedCost != null ? indexedCost : materialCost(materials);
+            // Ponto fixo com 4 casas: estouro vira ArithmeticException em vez de ranking errado
+            long unitMargin = Math.subtractExact(unitValue, unitCost);
+            long totalValue = Math.multiplyExact(unitValue, (long) maxQuantity);
+            long totalProfit = Math.multiplyExact(unitMargin, (long) maxQuantity);
+
+            Map<String, Object> suggestion = new HashMap<>();
+
+            // Converter produto para Map para evitar problemas de serialização
+            Map<String, Object> productMap = new HashMap<>();
+            productMap.put("id", product.getId());
+            productMap.put("code", product.getCode());
+            productMap.put("name", product.getName());
+            productMap.put("value", product.getValue());
+
+            suggestion.put("product", productMap);
+            suggestion.put("maxQuantity", maxQuantity);
+            suggestion.put("totalValue", product.getValue().multiply(BigDecimal.valueOf(maxQuantity)));
+            suggestion.put("materialCost", ProductCostIndex.fromFixed(unitCost));
+            suggestion.put("unitMargin", ProductCostIndex.fromFixed(unitMargin));
+            suggestion.put("totalProfit", ProductCostIndex.fromFixed(totalProfit));
+
+            // Adicionar detalhes das matérias-primas
+            List<Map<String, Object>> materialDetails = materials.stream()
+                    .map(pm -> {
+                        Map<String, Object> detail = new HashMap<>();
+                        detail.put("rawMaterialId", pm.getRawMaterial().getId());
+                        detail.put("rawMaterialName", pm.getRawMaterial().getName());
+                        detail.put("requiredQuantity", pm.getRequiredQuantity());
+                        detail.put("available", snapshot.stock().get(pm.getRawMaterial().getId()));
+                        return detail;
+                    })
+                    .collect(Collectors.toList());
+
+            suggestion.put("materialDetails", materialDetails);
+
+            long key = switch (sort) {
+                case VALUE -> totalValue;
+                case MARGIN -> unitMargin;
+                case PROFIT -> totalProfit;
+            };
+            ranked.add(new RankedSuggestion(key, totalValue, suggestion));
+        }
+
+        // Maior primeiro; empate decidido pelo valor total
+        ranked.sort((a, b) -> a.key() != b.key()
+                ? Long.compare(b.key(), a.key())
+                : Long.compare(b.totalValue(), a.totalValue()));
+        List<Map<String, Object>> suggestions = new ArrayList<>(ranked.size());
+        ranked.forEach(r -> suggestions.add(r.suggestion()));
+        return suggestions;
+    }
+
+    // Produto que ainda não chegou ao índice: custo calculado das linhas da BOM carregadas
+    private static long materialCost(List<ProductMaterial> materials) {
+        long cost = 0;
+        for (ProductMaterial pm : materials) {
+            cost += ProductCostIndex.toFixed(pm.getRawMaterial().getUnitPrice()) * pm.getRequiredQuantity();
+        }
+        return cost;
+    }
+
+    // Quantas unidades o estoque permite; 0 se alguma matéria-prima não cobre nem uma unidade
+    public static int maxProducible(List<ProductMaterial> materials, Map<Long, Integer> stock) {
+        int maxQuantity = Integer.MAX_VALUE;
+        for (ProductMaterial pm : materials) {
+            Integer required = pm.getRequiredQuantity();
+            // Linha com quantidade zero não limita a produção (mesma regra do gargalo e do caminho reativo)
+            if (required == null || required <= 0) continue;
+            Integer available = stock.get(pm.getRawMaterial().getId());
+            if (available == null || available < required) {
+                return 0;
+            }
+            maxQuantity = Math.min(maxQuantity, available / required);
+        }
+        return maxQuantity == Integer.MAX_VALUE ? 0 : maxQuantity;
+    }
+
+    public Map<String, Object> simulate(Long productId, Integer quantity) {
+        return simulate(productId, quantity, null);
+    }
+
+    // siteId nulo = estoque global da matéria-prima
+    public Map<String, Object> simulate(Long productId, Integer quantity, Long siteId) {
+        Optional<Product> productOpt = productRepository.findById(productId);
+        List<ProductMaterial> materials = productMaterialRepository.findByProductId(productId);
+
+        Map<String, Object> response = new HashMap<>();
+
+        if (productOpt.isEmpty() || materials.isEmpty()) {
+            response.put("success", false);
+            response.put("message", "Produto não encontrado ou sem matérias-primas definidas");
+            return response;
+        }
+
+        // Só o estoque das matérias-primas da BOM é necessário
+        Map<Long, Integer> stock = siteId != null
+                ? siteStockService.stockForSite(siteId)
+                : materials.stream().collect(Collectors.toMap(
+                        pm -> pm.getRawMaterial().getId(), pm -> pm.getRawMaterial().getQuantity()));
+
+        Product product = productOpt.get();
+        boolean canProduce = true;
+        List<Map<String, Object>> requiredMaterials = new ArrayList<>();
+
+        // Verificar se há estoque suficiente
+        for (ProductMaterial pm : materials) {
+            Long materialId = pm.getRawMaterial().getId();
+            Integer required = pm.getRequiredQuantity() * quantity;
+            Integer available = stock.get(materialId);
+
+            Map<String, Object> materialInfo = new HashMap<>();
+            materialInfo.put("materialId", materialId);
+            materialInfo.put("materialName", pm.getRawMaterial().getName());
+            materialInfo.put("requiredPerUnit", pm.getRequiredQuantity());
+            materialInfo.put("requiredTotal", required);
+            materialInfo.put("available", available);
+            materialInfo.put("sufficient", available != null && available >= required);
+
+            requiredMaterials.add(materialInfo);
+
+            if (available == null || available < required) {
+                canProduce = false;
+            }
+        }
+
+        response.put("productId", productId);
+        response.put("siteId", siteId);
+        response.put("productName", product.getName());
+        response.put("quantity", quantity);
+        response.put("unitValue", product.getValue());
+        response.put("totalValue", product.getValue().multiply(BigDecimal.valueOf(quantity)));
+        response.put("canProduce", canProduce);
+        response.put("materials", requiredMaterials);
+
+        return response;
+    }
+}
@@ -8,15 +8,19 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.autoflex.model.RawMaterial;
 import com.autoflex.repository.RawMaterialRepository;
+import com.autoflex.repository.SiteStockRepository;
 
 @Service
 @Transactional
 public class RawMaterialService {
 
     private final RawMaterialRepository rawMaterialRepository;
+    private final SiteStockRepository siteStockRepository;
 
-    public RawMaterialService(RawMaterialRepository rawMaterialRepository) {
+    public RawMaterialService(RawMaterialRepository rawMaterialRepository,
+                              SiteStockRepository siteStockRepository) {
         this.rawMaterialRepository = rawMaterialRepository;
+        this.siteStockRepository = siteStockRepository;
     }
 
     @Transactional(readOnly = true)
@@ -43,11 +47,24 @@ public class RawMaterialService {
     public RawMaterial update(Long id, RawMaterial updated) {
         return rawMaterialRepository.findById(id)
                 .map(material -> {
+                    if (updated.getQuantity() != null && !updated.getQuantity().equals(material.getQuantity())) {
+                        requireGlobalStock(id);
+                    }
                     material.setCode(updated.getCode());
                     material.setName(updated.getName());
-                    material.setUnit(updated.getUnit());
-                    material.setQuantity(updated.getQuantity());  // ← ALTERADO: de stockQuantity para quantity
-                    material.setUnitPrice(updated.getUnitPrice());
+                    // Campos nulos mantêm o valor atual (ex.: linha de importação sem preço)
+                    if (updated.getUnit() != null) {
+                        material.setUnit(updated.getUnit());
+                    }
+                    if (updated.getQuantity() != null) {
+                        material.setQuantity(updated.getQuantity());
+                    }
+                    if (updated.getUnitPrice() != null) {
+                        material.setUnitPrice(updated.getUnitPrice());
+                    }
+                    if (updated.getReorderPoint() != null) {
+                        material.setReorderPoint(updated.getReorderPoint());
+                    }
                     return rawMaterialRepository.save(material);
                 })
                 .orElseThrow(() -> new RuntimeException("Matéria-prima não encontrada com ID: " + id));
@@ -65,7 +82,8 @@ public class RawMaterialService {
     public RawMaterial updateStock(Long id, Integer quantity) {
         RawMaterial material = rawMaterialRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Matéria-prima não encontrada com ID: " + id));
-        
+        requireGlobalStock(id);
+
         int newStock = material.getQuantity() + quantity;  
         // Validação opcional: não permitir estoque negativo
         if (newStock < 0) {
@@ -77,6 +95,14 @@ public class RawMaterialService {
         return rawMaterialRepository.save(material);
     }
 
+    // Com estoque por planta o global é a soma delas e só muda por SiteStockService.adjustStock
+    private void requireGlobalStock(Long id) {
+        if (siteStockRepository.existsByRawMaterialId(id)) {
+            throw new IllegalArgumentException("A matéria-prima " + id
+                    + " tem estoque por planta: ajuste o estoque informando a planta (siteId)");
+        }
+    }
+
     // Método adicional: buscar por código
     @Transactional(readOnly = true)
     public Optional<RawMaterial> findByCode(String code) {
@@ -0,0 +1,136 @@
+package com.autoflex.service;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+
+import com.autoflex.service.ProductionService.SuggestionSort;
+
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+
+/**
+ * Leituras do catálogo via R2DBC, linha a linha.
+ *
+ * As linhas saem do banco conforme o cliente consome (demanda do Reactor chega
+ * até o cursor do driver), sem montar a lista inteira em memória e sem prender
+ * uma thread por requisição. As sugestões são calculadas no próprio PostgreSQL
+ * com a mesma regra do {@link ProductionService} (menor estoque/necessidade), mas
+ * só sobre o estoque global e sem materialDetails; para estoque por planta ou o
+ * detalhe por matéria-prima use /production/suggestions.
+ */
+@Service
+@ConditionalOnProperty(prefix = "autoflex.reactive", name = "enabled", havingValue = "true")
+public class ReactiveCatalogService {
+
+    private static final int MAX_SEARCH_RESULTS = 100;
+
+    private static final String SUGGESTIONS_SQL = """
+            SELECT p.id, p.code, p.name, p.value, s.max_quantity, s.material_cost
+            FROM products p
+            JOIN (SELECT pm.product_id,
+                         MIN(rm.quantity / pm.required_quantity) AS max_quantity,
+                         SUM(COALESCE(rm.unit_price, 0) * pm.required_quantity) AS material_cost
+                  FROM product_materials pm
+                  JOIN raw_materials rm ON rm.id = pm.raw_material_id
+                  WHERE pm.required_quantity > 0
+                  GROUP BY pm.product_id) s ON s.product_id = p.id
+            WHERE s.max_quantity > 0
+            ORDER BY %s DESC, p.value * s.max_quantity DESC, p.id
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveCatalogService(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Flux<Map<String, Object>> streamProducts() {
+        return databaseClient.sql("SELECT id, code, name, value FROM products ORDER BY id")
+                .map(ReactiveCatalogService::toProduct)
+                .all();
+    }
+
+    public Flux<Map<String, Object>> streamRawMaterials() {
+        return databaseClient.sql("SELECT id, code, name, unit, quantity, unit_price, reorder_point "
+                        + "FROM raw_materials ORDER BY id")
+                .map(ReactiveCatalogService::toRawMaterial)
+                .all();
+    }
+
+    // Busca por trecho em código ou nome (usa os índices de trigramas, se criados); código com prefixo vem antes
+    public Flux<Map<String, Object>> searchProducts(String q, int limit) {
+        return search("SELECT id, code, name, value FROM products ", q, limit)
+                .map(ReactiveCatalogService::toProduct)
+                .all();
+    }
+
+    public Flux<Map<String, Object>> searchRawMaterials(String q, int limit) {
+        return search("SELECT id, code, name, unit, quantity, unit_price, reorder_point FROM raw_materials ", q, limit)
+                .map(ReactiveCatalogService::toRawMaterial)
+                .all();
+    }
+
+    public Flux<Map<String, Object>> streamSuggestions(SuggestionSort sort) {
+        String orderBy = switch (sort) {
+            case VALUE -> "p.value * s.max_quantity";
+            case MARGIN -> "p.value - s.material_cost";
+            case PROFIT -> "(p.value - s.material_cost) * s.max_quantity";
+        };
+        return databaseClient.sql(String.format(SUGGESTIONS_SQL, orderBy))
+                .map(ReactiveCatalogService::toSuggestion)
+                .all();
+    }
+
+    private DatabaseClient.GenericExecuteSpec search(String select, String q, int limit) {
+        String term = q == null ? "" : q.trim().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return databaseClient.sql(select
+                        + "WHERE code ILIKE :contains OR name ILIKE :contains "
+                        + "ORDER BY (code ILIKE :prefix) DESC, name LIMIT :limit")
+                .bind("contains", "%" + term + "%")
+                .bind("prefix", term + "%")
+                .bind("limit", Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)));
+    }
+
+    private static Map<String, Object> toProduct(Readable row) {
+        Map<String, Object> product = new HashMap<>();
+        product.put("id", row.get("id", Long.class));
+        product.put("code", row.get("code", String.class));
+        product.put("name", row.get("name", String.class));
+        product.put("value", row.get("value", BigDecimal.class));
+        return product;
+    }
+
+    private static Map<String, Object> toRawMaterial(Readable row) {
+        Map<String, Object> material = new HashMap<>();
+        material.put("id", row.get("id", Long.class));
+        material.put("code", row.get("code", String.class));
+        material.put("name", row.get("name", String.class));
+        material.put("unit", row.get("unit", String.class));
+        material.put("quantity", row.get("quantity", Integer.class));
+        material.put("unitPrice", row.get("unit_price", BigDecimal.class));
+        material.put("reorderPoint", row.get("reorder_point", Integer.class));
+        return material;
+    }
+
+    private static Map<String, Object> toSuggestion(Readable row) {
+        BigDecimal value = row.get("value", BigDecimal.class);
+        long maxQuantity = row.get("max_quantity", Long.class);
+        BigDecimal materialCost = row.get("material_cost", BigDecimal.class);
+        BigDecimal unitMargin = value.subtract(materialCost);
+
+        Map<String, Object> suggestion = new LinkedHashMap<>();
+        suggestion.put("product", toProduct(row));
+        suggestion.put("maxQuantity", maxQuantity);
+        suggestion.put("totalValue", value.multiply(BigDecimal.valueOf(maxQuantity)));
+        suggestion.put("materialCost", materialCost);
+        suggestion.put("unitMargin", unitMargin);
+        suggestion.put("totalProfit", unitMargin.multiply(BigDecimal.valueOf(maxQuantity)));
+        return suggestion;
+    }
+}
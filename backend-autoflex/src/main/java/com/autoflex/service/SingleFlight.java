@@ -0,0 +1,107 @@
+package com.autoflex.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.autoflex.config.ReplicaRoutingDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Agrupa cálculos idênticos em andamento: o primeiro chamador executa, os que
+ * chegam enquanto ele roda esperam o mesmo future e recebem o mesmo resultado.
+ * Nada é guardado depois que o cálculo termina, então não há dado velho além
+ * da janela em que a execução estava em curso.
+ *
+ * Métricas: autoflex.singleflight.calls{operation, role=leader|follower} e
+ * autoflex.singleflight.coalescing.ratio{operation} (fração de chamadas atendidas por outro).
+ */
+@Component
+public class SingleFlight {
+
+    private static final Logger log = LoggerFactory.getLogger(SingleFlight.class);
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counter[]> counters = new ConcurrentHashMap<>();
+    private final MeterRegistry registry;
+    private final long followerTimeoutMillis;
+
+    public SingleFlight(MeterRegistry registry,
+                        @Value("${autoflex.singleflight.follower-timeout:30s}") Duration followerTimeout) {
+        this.registry = registry;
+        this.followerTimeoutMillis = followerTimeout.toMillis();
+    }
+
+    /**
+     * @param operation nome usado nas métricas (baixa cardinalidade)
+     * @param key identifica o cálculo; chamadas com a mesma chave são agrupadas
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, String key, Supplier<T> computation) {
+        Counter[] calls = counters(operation);
+        // Quem acabou de escrever lê do primário: só se junta a cálculos que também leem do primário
+        String flightKey = (ReplicaRoutingDataSource.isPrimaryForced() ? "primary:" : "routed:") + key;
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, mine);
+
+        if (existing != null) {
+            calls[1].increment();
+            try {
+                return (T) existing.get(followerTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Líder travado: este chamador segue sozinho em vez de esperar indefinidamente
+                log.warn("Cálculo '{}' em andamento há mais de {} ms; executando sem agrupar", operation,
+                        followerTimeoutMillis);
+                return computation.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                if (e.getCause() instanceof Error error) throw error;
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrompido aguardando cálculo em andamento", e);
+            }
+        }
+
+        calls[0].increment();
+        try {
+            T result = computation.get();
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, mine);
+        }
+    }
+
+    private Counter[] counters(String operation) {
+        return counters.computeIfAbsent(operation, op -> {
+            Counter leader = Counter.builder("autoflex.singleflight.calls")
+                    .tag("operation", op).tag("role", "leader").register(registry);
+            Counter follower = Counter.builder("autoflex.singleflight.calls")
+                    .tag("operation", op).tag("role", "follower").register(registry);
+            Gauge.builder("autoflex.singleflight.coalescing.ratio", () -> {
+                        double total = leader.count() + follower.count();
+                        return total == 0 ? 0 : follower.count() / total;
+                    })
+                    .tag("operation", op)
+                    .register(registry);
+            return new Counter[] { leader, follower };
+        });
+    }
+}
@@ -0,0 +1,139 @@
+package com.autoflex.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.autoflex.event.CatalogChangeEvent;
+import com.autoflex.model.Site;
+import com.autoflex.model.SiteStock;
+import com.autoflex.repository.RawMaterialRepository;
+import com.autoflex.repository.SiteRepository;
+import com.autoflex.repository.SiteStockRepository;
+
+/**
+ * Estoque por planta, usado pelo planejamento por planta (sugestões e simulação
+ * com siteId). Para uma matéria-prima com linhas por planta, o estoque global de
+ * {@link com.autoflex.model.RawMaterial} é a soma delas, recalculada na mesma
+ * transação de cada ajuste; alertas, dashboard, histórico e gargalos leem esse
+ * global. Ajustes diretos do global dessas matérias-primas são recusados.
+ */
+@Service
+@Transactional
+public class SiteStockService {
+
+    private final SiteRepository siteRepository;
+    private final SiteStockRepository siteStockRepository;
+    private final RawMaterialRepository rawMaterialRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public SiteStockService(SiteRepository siteRepository,
+                            SiteStockRepository siteStockRepository,
+                            RawMaterialRepository rawMaterialRepository,
+                            ApplicationEventPublisher eventPublisher) {
+        this.siteRepository = siteRepository;
+        this.siteStockRepository = siteStockRepository;
+        this.rawMaterialRepository = rawMaterialRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Site> getSites() {
+        return siteRepository.findAll();
+    }
+
+    @Transactional
+    public Site createSite(Site site) {
+        if (site.getCode() != null && siteRepository.findByCode(site.getCode()).isPresent()) {
+            throw new IllegalArgumentException("Já existe uma planta com o código: " + site.getCode());
+        }
+        return siteRepository.save(site);
+    }
+
+    @Transactional(readOnly = true)
+    public boolean siteExists(Long siteId) {
+        return siteRepository.existsById(siteId);
+    }
+
+    // true quando o estoque global da matéria-prima é derivado das plantas
+    @Transactional(readOnly = true)
+    public boolean hasSiteStock(Long rawMaterialId) {
+        return siteStockRepository.existsByRawMaterialId(rawMaterialId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<SiteStock> getStock(Long siteId) {
+        return siteStockRepository.findBySiteId(siteId);
+    }
+
+    // Estoque de uma planta: rawMaterialId -> quantidade
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> stockForSite(Long siteId) {
+        Map<Long, Integer> stock = new HashMap<>();
+        siteStockRepository.findBySiteId(siteId).forEach(s -> stock.put(s.getRawMaterialId(), s.getQuantity()));
+        return stock;
+    }
+
+    // Estoque somado entre todas as plantas
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> aggregatedStock() {
+        Map<Long, Integer> stock = new HashMap<>();
+        for (Object[] row : siteStockRepository.sumByRawMaterial()) {
+            stock.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+        return stock;
+    }
+
+    // Estoque de todas as plantas numa consulta, particionado por planta
+    @Transactional(readOnly = true)
+    public Map<Long, Map<Long, Integer>> stockBySite() {
+        Map<Long, Map<Long, Integer>> bySite = new HashMap<>();
+        siteRepository.findAll().forEach(site -> bySite.put(site.getId(), new HashMap<>()));
+        for (SiteStock s : siteStockRepository.findAll()) {
+            bySite.computeIfAbsent(s.getSiteId(), k -> new HashMap<>()).put(s.getRawMaterialId(), s.getQuantity());
+        }
+        return bySite;
+    }
+
+    /**
+     * Ajusta o estoque de uma matéria-prima numa planta com uma única instrução
+     * atômica e recalcula o global como a soma das plantas na mesma transação.
+     * A linha da matéria-prima é bloqueada primeiro, para que ajustes simultâneos
+     * em plantas diferentes somem sobre o saldo já confirmado um do outro.
+     */
+    @Transactional
+    public SiteStock adjustStock(Long siteId, Long rawMaterialId, int delta) {
+        if (!siteRepository.existsById(siteId)) {
+            throw new RuntimeException("Planta não encontrada com ID: " + siteId);
+        }
+        // Verificado antes: em bancos criados antes da chave estrangeira o upsert aceitaria qualquer id
+        if (rawMaterialRepository.lockById(rawMaterialId).isEmpty()) {
+            throw new RuntimeException("Matéria-prima não encontrada com ID: " + rawMaterialId);
+        }
+        try {
+            int updated = delta >= 0
+                    ? siteStockRepository.addStock(siteId, rawMaterialId, delta)
+                    : siteStockRepository.removeStock(siteId, rawMaterialId, delta);
+            if (updated == 0) {
+                throw new IllegalArgumentException("Estoque insuficiente na planta " + siteId
+                        + " para remover " + Math.abs(delta) + " da matéria-prima " + rawMaterialId);
+            }
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("Matéria-prima não encontrada com ID: " + rawMaterialId);
+        }
+
+        // Instrução nativa: o listener JPA não vê a mudança do global, então o evento sai daqui
+        rawMaterialRepository.syncQuantityFromSites(rawMaterialId);
+
+        eventPublisher.publishEvent(new CatalogChangeEvent(
+                CatalogChangeEvent.Entity.SITE_STOCK, siteId, CatalogChangeEvent.Action.UPDATED));
+        eventPublisher.publishEvent(new CatalogChangeEvent(
+                CatalogChangeEvent.Entity.RAW_MATERIAL, rawMaterialId, CatalogChangeEvent.Action.UPDATED));
+        return siteStockRepository.findBySiteIdAndRawMaterialId(siteId, rawMaterialId).orElseThrow();
+    }
+}
@@ -0,0 +1,148 @@
+package com.autoflex.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.autoflex.event.CatalogChangeEvent;
+import com.autoflex.event.CatalogResyncEvent;
+import com.autoflex.event.RemoteCatalogChangeEvent;
+import com.autoflex.model.RawMaterial;
+import com.autoflex.repository.ProductMaterialRepository;
+import com.autoflex.repository.RawMaterialRepository;
+
+/**
+ * Mantém em memória as matérias-primas com estoque no ponto de reposição ou abaixo.
+ * A carga inicial usa o índice parcial de estoque baixo; depois cada alteração
+ * de matéria-prima reavalia apenas a linha afetada.
+ */
+@Service
+public class StockAlertService {
+
+    public record StockAlert(Long id, String code, String name, Integer quantity, Integer reorderPoint) {}
+
+    private final RawMaterialRepository rawMaterialRepository;
+    private final ProductMaterialRepository productMaterialRepository;
+
+    private final Map<Long, StockAlert> alerts = new ConcurrentHashMap<>();
+    private final CatalogCacheLoader<Map<Long, StockAlert>> loader;
+
+    public StockAlertService(RawMaterialRepository rawMaterialRepository,
+                             ProductMaterialRepository productMaterialRepository) {
+        this.rawMaterialRepository = rawMaterialRepository;
+        this.productMaterialRepository = productMaterialRepository;
+        this.loader = new CatalogCacheLoader<>(this::readLowStock, this::publish, alerts::clear, this::apply);
+    }
+
+    public int getAlertCount() {
+        ensureLoaded();
+        return alerts.size();
+    }
+
+    public List<Map<String, Object>> getAlerts() {
+        ensureLoaded();
+        List<StockAlert> current = new ArrayList<>(alerts.values());
+        if (current.isEmpty()) {
+            return List.of();
+        }
+
+        // Produtos afetados de todas as matérias em alerta, numa única consulta ao índice reverso
+        Map<Long, List<Map<String, Object>>> usages = new HashMap<>();
+        for (Object[] row : productMaterialRepository.findUsagesByRawMaterialIds(alerts.keySet())) {
+            Long rawMaterialId = (Long) row[0];
+            Integer required = (Integer) row[4];
+            StockAlert alert = alerts.get(rawMaterialId);
+            if (alert == null) continue;
+
+            Map<String, Object> product = new HashMap<>();
+            product.put("productId", row[1]);
+            product.put("productCode", row[2]);
+            product.put("productName", row[3]);
+            product.put("requiredQuantity", required);
+            // Bloqueado = não há estoque nem para uma unidade do produto
+            product.put("blocked", alert.quantity() < required);
+            usages.computeIfAbsent(rawMaterialId, k -> new ArrayList<>()).add(product);
+        }
+
+        current.sort(Comparator.comparingInt((StockAlert a) -> a.quantity() - a.reorderPoint()));
+
+        List<Map<String, Object>> response = new ArrayList<>();
+        for (StockAlert alert : current) {
+            List<Map<String, Object>> products = usages.getOrDefault(alert.id(), List.of());
+            Map<String, Object> map = new HashMap<>();
+            map.put("id", alert.id());
+            map.put("code", alert.code());
+            map.put("name", alert.name());
+            map.put("quantity", alert.quantity());
+            map.put("reorderPoint", alert.reorderPoint());
+            map.put("shortage", alert.reorderPoint() - alert.quantity());
+            map.put("affectedProducts", products);
+            map.put("blockedProducts", products.stream().filter(p -> (Boolean) p.get("blocked")).count());
+            response.add(map);
+        }
+        return response;
+    }
+
+    // Reavaliação incremental: só a matéria-prima alterada é relida, depois do commit
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        if (event.entity() == CatalogChangeEvent.Entity.RAW_MATERIAL) {
+            loader.onChange(event);
+        }
+    }
+
+    @EventListener
+    public void onRemoteChange(RemoteCatalogChangeEvent event) {
+        onCatalogChange(event.change());
+    }
+
+    // Sem saber o que mudou: a próxima leitura recarrega do índice
+    @EventListener
+    public void onResync(CatalogResyncEvent event) {
+        loader.invalidate();
+    }
+
+    private void apply(CatalogChangeEvent event) {
+        if (event.action() == CatalogChangeEvent.Action.DELETED) {
+            alerts.remove(event.id());
+            return;
+        }
+        rawMaterialRepository.findById(event.id())
+                .ifPresentOrElse(this::evaluate, () -> alerts.remove(event.id()));
+    }
+
+    private void evaluate(RawMaterial material) {
+        if (material.getQuantity() <= material.getReorderPoint()) {
+            alerts.put(material.getId(), toAlert(material));
+        } else {
+            alerts.remove(material.getId());
+        }
+    }
+
+    private void ensureLoaded() {
+        loader.ensureLoaded();
+    }
+
+    private Map<Long, StockAlert> readLowStock() {
+        Map<Long, StockAlert> snapshot = new HashMap<>();
+        rawMaterialRepository.findLowStock().forEach(m -> snapshot.put(m.getId(), toAlert(m)));
+        return snapshot;
+    }
+
+    private void publish(Map<Long, StockAlert> snapshot) {
+        alerts.clear();
+        alerts.putAll(snapshot);
+    }
+
+    private static StockAlert toAlert(RawMaterial material) {
+        return new StockAlert(material.getId(), material.getCode(), material.getName(),
+                material.getQuantity(), material.getReorderPoint());
+    }
+}
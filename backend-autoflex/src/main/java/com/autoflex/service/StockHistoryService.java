@@ -0,0 +1,373 @@
+package com.autoflex.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.autoflex.event.CatalogChangeEvent;
+import com.autoflex.model.ProductMaterial;
+import com.autoflex.model.StockHistoryBucket;
+import com.autoflex.model.StockHistoryRollup;
+import com.autoflex.repository.ProductMaterialRepository;
+import com.autoflex.repository.RawMaterialRepository;
+import com.autoflex.repository.StockHistoryBucketRepository;
+import com.autoflex.repository.StockHistoryRollupRepository;
+
+/**
+ * Histórico de estoque por matéria-prima e de capacidade produzível por produto.
+ *
+ * As amostras vêm dos eventos de alteração do catálogo, ficam num buffer e são
+ * gravadas periodicamente: o bruto em blocos diários codificados em delta, e os
+ * agregados de minuto, hora e dia recalculados a partir do bloco do dia na mesma
+ * gravação. Consultas longas leem só os agregados (um ano em resolução diária são
+ * 365 linhas).
+ *
+ * Uma gravação que falha devolve as amostras ao buffer; no desligamento o buffer é
+ * gravado uma última vez.
+ */
+@Service
+public class StockHistoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(StockHistoryService.class);
+
+    public enum SeriesType { STOCK, CAPACITY }
+
+    public enum Resolution {
+        RAW(0), MINUTE(60_000L), HOUR(3_600_000L), DAY(86_400_000L);
+
+        final long millis;
+
+        Resolution(long millis) {
+            this.millis = millis;
+        }
+
+        long floor(long timestamp) {
+            return timestamp - Math.floorMod(timestamp, millis);
+        }
+    }
+
+    private record SeriesKey(SeriesType type, long id) {}
+
+    private final StockHistoryBucketRepository bucketRepository;
+    private final StockHistoryRollupRepository rollupRepository;
+    private final RawMaterialRepository rawMaterialRepository;
+    private final ProductMaterialRepository productMaterialRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private static final Comparator<DeltaCodec.Sample> BY_TIME = Comparator.comparingLong(DeltaCodec.Sample::timestamp);
+
+    // Ambos protegidos pelo monitor de pending; lastRecorded só recebe valores já gravados
+    private final Map<SeriesKey, List<DeltaCodec.Sample>> pending = new HashMap<>();
+    private final Map<SeriesKey, Long> lastRecorded = new HashMap<>();
+    private final Object flushLock = new Object();
+
+    private final Duration rawRetention;
+    private final Duration minuteRetention;
+    private final Duration hourRetention;
+
+    public StockHistoryService(StockHistoryBucketRepository bucketRepository,
+                               StockHistoryRollupRepository rollupRepository,
+                               RawMaterialRepository rawMaterialRepository,
+                               ProductMaterialRepository productMaterialRepository,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${autoflex.history.raw-retention:30d}") Duration rawRetention,
+                               @Value("${autoflex.history.minute-retention:7d}") Duration minuteRetention,
+                               @Value("${autoflex.history.hour-retention:180d}") Duration hourRetention) {
+        this.bucketRepository = bucketRepository;
+        this.rollupRepository = rollupRepository;
+        this.rawMaterialRepository = rawMaterialRepository;
+        this.productMaterialRepository = productMaterialRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.rawRetention = rawRetention;
+        this.minuteRetention = minuteRetention;
+        this.hourRetention = hourRetention;
+    }
+
+    public void record(SeriesType type, long seriesId, long timestamp, long value) {
+        SeriesKey key = new SeriesKey(type, seriesId);
+        synchronized (pending) {
+            // Série em degraus: valor repetido não acrescenta informação
+            List<DeltaCodec.Sample> queued = pending.get(key);
+            Long previous = queued != null && !queued.isEmpty()
+                    ? queued.get(queued.size() - 1).value()
+                    : lastRecorded.get(key);
+            if (previous != null && previous == value) return;
+            pending.computeIfAbsent(key, k -> new ArrayList<>()).add(new DeltaCodec.Sample(timestamp, value));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        if (event.action() == CatalogChangeEvent.Action.DELETED) return;
+        long now = System.currentTimeMillis();
+
+        switch (event.entity()) {
+            case RAW_MATERIAL -> rawMaterialRepository.findById(event.id()).ifPresent(material -> {
+                record(SeriesType.STOCK, material.getId(), now, material.getQuantity());
+                List<Long> productIds = productMaterialRepository.findUsagesByRawMaterialIds(List.of(material.getId()))
+                        .stream().map(row -> (Long) row[1]).distinct().toList();
+                recordCapacity(productIds, now);
+            });
+            case PRODUCT_MATERIAL -> recordCapacity(List.of(event.id()), now);
+            default -> { }
+        }
+    }
+
+    private void recordCapacity(Collection<Long> productIds, long now) {
+        if (productIds.isEmpty()) return;
+        Map<Long, List<ProductMaterial>> bomByProduct = productMaterialRepository.findByProductIdIn(productIds)
+                .stream().collect(Collectors.groupingBy(pm -> pm.getProduct().getId()));
+        Map<Long, Integer> stock = new HashMap<>();
+        bomByProduct.values().forEach(lines -> lines.forEach(
+                pm -> stock.put(pm.getRawMaterial().getId(), pm.getRawMaterial().getQuantity())));
+
+        for (Long productId : productIds) {
+            List<ProductMaterial> lines = bomByProduct.getOrDefault(productId, List.of());
+            record(SeriesType.CAPACITY, productId, now, ProductionService.maxProducible(lines, stock));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${autoflex.history.flush-interval-ms:10000}")
+    public void flush() {
+        synchronized (flushLock) {
+            Map<SeriesKey, List<DeltaCodec.Sample>> batch;
+            synchronized (pending) {
+                if (pending.isEmpty()) return;
+                batch = new HashMap<>(pending);
+                pending.clear();
+            }
+
+            batch.forEach((key, samples) -> {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> write(key, samples));
+                } catch (DataAccessException | TransactionException e) {
+                    // Conflito com outra instância ou banco fora: as amostras voltam para a próxima rodada
+                    log.warn("Histórico de {} {} não gravado, nova tentativa na próxima rodada: {}",
+                            key.type(), key.id(), e.getMessage());
+                    synchronized (pending) {
+                        pending.computeIfAbsent(key, k -> new ArrayList<>()).addAll(0, samples);
+                    }
+                    return;
+                }
+                synchronized (pending) {
+                    lastRecorded.put(key, samples.get(samples.size() - 1).value());
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        synchronized (pending) {
+            if (!pending.isEmpty()) {
+                log.warn("Desligando com histórico não gravado de {} séries", pending.size());
+            }
+        }
+    }
+
+    private void write(SeriesKey key, List<DeltaCodec.Sample> samples) {
+        String type = key.type().name();
+        List<DeltaCodec.Sample> sorted = new ArrayList<>(samples);
+        sorted.sort(BY_TIME);
+
+        groupBy(sorted, Resolution.DAY).forEach((day, daySamples) -> {
+            StockHistoryBucket bucket = bucketRepository
+                    .findBySeriesTypeAndSeriesIdAndBucketStart(type, key.id(), day)
+                    .orElseGet(() -> new StockHistoryBucket(type, key.id(), day));
+
+            List<DeltaCodec.Sample> all;
+            if (bucket.getSampleCount() > 0 && daySamples.get(0).timestamp() < bucket.getLastTimestamp()) {
+                // Amostra mais antiga que o fim do bloco (outra instância gravou antes): mescla e recodifica o dia
+                all = new ArrayList<>(DeltaCodec.decode(bucket.getData(), day));
+                all.addAll(daySamples);
+                all.sort(BY_TIME);
+                all = dropRepeats(all, null);
+                bucket.setData(DeltaCodec.encode(day, all));
+            } else {
+                List<DeltaCodec.Sample> fresh =
+                        dropRepeats(daySamples, bucket.getSampleCount() > 0 ? bucket.getLastValue() : null);
+                if (fresh.isEmpty()) return;
+                bucket.setData(DeltaCodec.append(
+                        bucket.getData(), bucket.getLastTimestamp(), bucket.getLastValue(), fresh));
+                all = DeltaCodec.decode(bucket.getData(), day);
+            }
+            DeltaCodec.Sample last = all.get(all.size() - 1);
+            bucket.setSampleCount(all.size());
+            bucket.setLastTimestamp(last.timestamp());
+            bucket.setLastValue(last.value());
+            bucketRepository.save(bucket);
+
+            // Valor em vigor antes da primeira amostra do dia (null se a série começa hoje)
+            Long carryIntoDay = bucketRepository
+                    .findFirstBySeriesTypeAndSeriesIdAndBucketStartLessThanOrderByBucketStartDesc(type, key.id(), day)
+                    .map(StockHistoryBucket::getLastValue)
+                    .orElse(null);
+            for (Resolution resolution : List.of(Resolution.MINUTE, Resolution.HOUR, Resolution.DAY)) {
+                // Só os intervalos a partir da amostra nova mais antiga mudam
+                long from = resolution.floor(daySamples.get(0).timestamp());
+                Long carry = carryIntoDay;
+                for (Map.Entry<Long, List<DeltaCodec.Sample>> group : groupBy(all, resolution).entrySet()) {
+                    List<DeltaCodec.Sample> groupSamples = group.getValue();
+                    if (group.getKey() >= from) {
+                        writeRollup(type, key.id(), resolution, group.getKey(), groupSamples, carry);
+                    }
+                    carry = groupSamples.get(groupSamples.size() - 1).value();
+                }
+            }
+        });
+    }
+
+    // Recalcula o agregado do intervalo a partir de todas as suas amostras e do valor que vinha antes dele
+    private void writeRollup(String type, long seriesId, Resolution resolution, long start,
+                             List<DeltaCodec.Sample> group, Long carry) {
+        StockHistoryRollup rollup = rollupRepository
+                .findBySeriesTypeAndSeriesIdAndResolutionAndBucketStart(type, seriesId, resolution.name(), start)
+                .orElseGet(() -> new StockHistoryRollup(type, seriesId, resolution.name(), start));
+
+        long first = carry != null ? start : group.get(0).timestamp();
+        long value = carry != null ? carry : group.get(0).value();
+        long previousTimestamp = first;
+        long min = value;
+        long max = value;
+        long weightedSum = 0;
+        for (DeltaCodec.Sample sample : group) {
+            weightedSum += value * (sample.timestamp() - previousTimestamp);
+            value = sample.value();
+            previousTimestamp = sample.timestamp();
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        rollup.setMinValue(min);
+        rollup.setMaxValue(max);
+        rollup.setWeightedSum(weightedSum);
+        rollup.setFirstTimestamp(first);
+        rollup.setLastTimestamp(previousTimestamp);
+        rollup.setLastValue(value);
+        rollup.setSampleCount(group.size());
+        rollupRepository.save(rollup);
+    }
+
+    // Descarta amostras que repetem o valor anterior (a primeira é comparada com previous)
+    private static List<DeltaCodec.Sample> dropRepeats(List<DeltaCodec.Sample> samples, Long previous) {
+        List<DeltaCodec.Sample> result = new ArrayList<>(samples.size());
+        for (DeltaCodec.Sample sample : samples) {
+            if (previous != null && previous == sample.value()) continue;
+            result.add(sample);
+            previous = sample.value();
+        }
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${autoflex.history.purge-interval-ms:3600000}")
+    public void purge() {
+        long now = System.currentTimeMillis();
+        transactionTemplate.executeWithoutResult(status -> {
+            int raw = bucketRepository.deleteOlderThan(Resolution.DAY.floor(now - rawRetention.toMillis()));
+            int minutes = rollupRepository.deleteOlderThan(Resolution.MINUTE.name(), now - minuteRetention.toMillis());
+            int hours = rollupRepository.deleteOlderThan(Resolution.HOUR.name(), now - hourRetention.toMillis());
+            if (raw + minutes + hours > 0) {
+                log.info("Histórico expirado removido: {} blocos brutos, {} agregados de minuto, {} de hora",
+                        raw, minutes, hours);
+            }
+        });
+    }
+
+    /**
+     * Consulta um intervalo. Sem resolução explícita, escolhe a mais fina que
+     * mantém a resposta pequena. Amostras ainda no buffer aparecem após a próxima gravação.
+     */
+    public Map<String, Object> getHistory(SeriesType type, long seriesId, Instant from, Instant to, String resolution) {
+        long end = to != null ? to.toEpochMilli() : System.currentTimeMillis();
+        long start = from != null ? from.toEpochMilli() : end - Duration.ofDays(1).toMillis();
+        if (start > end) {
+            throw new IllegalArgumentException("'from' deve ser anterior a 'to'");
+        }
+        Resolution res = resolution == null || resolution.equalsIgnoreCase("auto")
+                ? chooseResolution(end - start)
+                : Resolution.valueOf(resolution.toUpperCase());
+
+        List<Map<String, Object>> points = new ArrayList<>();
+        if (res == Resolution.RAW) {
+            for (StockHistoryBucket bucket : bucketRepository
+                    .findBySeriesTypeAndSeriesIdAndBucketStartBetweenOrderByBucketStart(
+                            type.name(), seriesId, Resolution.DAY.floor(start), end)) {
+                for (DeltaCodec.Sample sample : DeltaCodec.decode(bucket.getData(), bucket.getBucketStart())) {
+                    if (sample.timestamp() < start || sample.timestamp() > end) continue;
+                    Map<String, Object> point = new LinkedHashMap<>();
+                    point.put("t", Instant.ofEpochMilli(sample.timestamp()));
+                    point.put("value", sample.value());
+                    points.add(point);
+                }
+            }
+        } else {
+            for (StockHistoryRollup rollup : rollupRepository
+                    .findBySeriesTypeAndSeriesIdAndResolutionAndBucketStartBetweenOrderByBucketStart(
+                            type.name(), seriesId, res.name(), res.floor(start), end)) {
+                Map<String, Object> point = new LinkedHashMap<>();
+                point.put("t", Instant.ofEpochMilli(rollup.getBucketStart()));
+                point.put("min", rollup.getMinValue());
+                point.put("max", rollup.getMaxValue());
+                point.put("avg", timeWeightedAverage(rollup, res));
+                point.put("last", rollup.getLastValue());
+                point.put("count", rollup.getSampleCount());
+                points.add(point);
+            }
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("series", type.name());
+        response.put("id", seriesId);
+        response.put("from", Instant.ofEpochMilli(start));
+        response.put("to", Instant.ofEpochMilli(end));
+        response.put("resolution", res.name());
+        response.put("points", points);
+        return response;
+    }
+
+    // O último valor vale até o fim do intervalo, ou até agora se o intervalo ainda está aberto
+    private static double timeWeightedAverage(StockHistoryRollup rollup, Resolution resolution) {
+        long end = Math.max(rollup.getLastTimestamp(),
+                Math.min(rollup.getBucketStart() + resolution.millis, System.currentTimeMillis()));
+        long span = end - rollup.getFirstTimestamp();
+        if (span <= 0) return rollup.getLastValue();
+        double total = rollup.getWeightedSum() + (double) rollup.getLastValue() * (end - rollup.getLastTimestamp());
+        return total / span;
+    }
+
+    private static Resolution chooseResolution(long rangeMillis) {
+        if (rangeMillis <= Duration.ofHours(2).toMillis()) return Resolution.RAW;
+        if (rangeMillis <= Duration.ofDays(2).toMillis()) return Resolution.MINUTE;
+        if (rangeMillis <= Duration.ofDays(60).toMillis()) return Resolution.HOUR;
+        return Resolution.DAY;
+    }
+
+    private static Map<Long, List<DeltaCodec.Sample>> groupBy(List<DeltaCodec.Sample> samples, Resolution resolution) {
+        Map<Long, List<DeltaCodec.Sample>> groups = new TreeMap<>();
+        for (DeltaCodec.Sample sample : samples) {
+            groups.computeIfAbsent(resolution.floor(sample.timestamp()), k -> new ArrayList<>()).add(sample);
+        }
+        return groups;
+    }
+}
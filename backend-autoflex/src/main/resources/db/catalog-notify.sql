@@ -0,0 +1,62 @@
+-- Log de alterações do catálogo + NOTIFY no commit (idempotente, PostgreSQL 13+)
+-- Também em database-schema.sql; só é executado na inicialização com
+-- autoflex.catalog-notify.install-trigger=true
+CREATE TABLE IF NOT EXISTS catalog_changes (
+    seq BIGSERIAL PRIMARY KEY,
+    entity VARCHAR(30) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    action VARCHAR(10) NOT NULL,
+    changed_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+-- xid: leitura em ordem de commit; origin: application_name da instância que alterou
+ALTER TABLE catalog_changes ADD COLUMN IF NOT EXISTS xid xid8 NOT NULL DEFAULT pg_current_xact_id();
+ALTER TABLE catalog_changes ADD COLUMN IF NOT EXISTS origin VARCHAR(64);
+
+CREATE INDEX IF NOT EXISTS idx_catalog_changes_changed_at ON catalog_changes (changed_at);
+CREATE INDEX IF NOT EXISTS idx_catalog_changes_xid ON catalog_changes (xid, seq);
+
+CREATE OR REPLACE FUNCTION autoflex_catalog_notify() RETURNS trigger AS $$
+DECLARE
+    rec RECORD;
+    v_entity TEXT;
+    v_id BIGINT;
+    v_action TEXT;
+BEGIN
+    IF TG_OP = 'DELETE' THEN rec := OLD; ELSE rec := NEW; END IF;
+    v_action := CASE TG_OP WHEN 'INSERT' THEN 'CREATED' WHEN 'UPDATE' THEN 'UPDATED' ELSE 'DELETED' END;
+
+    IF TG_TABLE_NAME = 'products' THEN
+        v_entity := 'PRODUCT'; v_id := rec.id;
+    ELSIF TG_TABLE_NAME = 'raw_materials' THEN
+        v_entity := 'RAW_MATERIAL'; v_id := rec.id;
+    ELSIF TG_TABLE_NAME = 'product_materials' THEN
+        -- Linhas da BOM são notificadas como alteração do produto dono
+        v_entity := 'PRODUCT_MATERIAL'; v_id := rec.product_id; v_action := 'UPDATED';
+    ELSE
+        v_entity := 'SITE_STOCK'; v_id := rec.site_id; v_action := 'UPDATED';
+    END IF;
+
+    INSERT INTO catalog_changes (entity, entity_id, action, origin)
+    VALUES (v_entity, v_id, v_action, NULLIF(current_setting('application_name', true), ''));
+    -- Payloads iguais na mesma transação são entregues uma única vez pelo PostgreSQL
+    PERFORM pg_notify('autoflex_catalog', v_entity || ':' || v_id);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS autoflex_catalog_notify ON products;
+CREATE TRIGGER autoflex_catalog_notify AFTER INSERT OR UPDATE OR DELETE ON products
+    FOR EACH ROW EXECUTE FUNCTION autoflex_catalog_notify();
+
+DROP TRIGGER IF EXISTS autoflex_catalog_notify ON raw_materials;
+CREATE TRIGGER autoflex_catalog_notify AFTER INSERT OR UPDATE OR DELETE ON raw_materials
+    FOR EACH ROW EXECUTE FUNCTION autoflex_catalog_notify();
+
+DROP TRIGGER IF EXISTS autoflex_catalog_notify ON product_materials;
+CREATE TRIGGER autoflex_catalog_notify AFTER INSERT OR UPDATE OR DELETE ON product_materials
+    FOR EACH ROW EXECUTE FUNCTION autoflex_catalog_notify();
+
+DROP TRIGGER IF EXISTS autoflex_catalog_notify ON site_stocks;
+CREATE TRIGGER autoflex_catalog_notify AFTER INSERT OR UPDATE OR DELETE ON site_stocks
+    FOR EACH ROW EXECUTE FUNCTION autoflex_catalog_notify();
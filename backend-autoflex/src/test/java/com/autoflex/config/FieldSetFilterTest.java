@@ -0,0 +1,77 @@
+package com.autoflex.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+class FieldSetFilterTest {
+
+    private final SparseFieldsetConverters.Json converter =
+            new SparseFieldsetConverters.Json(Jackson2ObjectMapperBuilder.json().build());
+
+    @Test
+    void keepsOnlyRequestedNestedPathsInsideLists() throws IOException {
+        Map<String, Object> suggestion = ordered(
+                "id", 1,
+                "product", ordered("id", 2, "name", "Mesa", "value", 150),
+                "materialDetails", List.of(
+                        ordered("rawMaterialId", 10, "available", 5),
+                        ordered("rawMaterialId", 11, "available", 7)));
+
+        assertEquals("{\"product\":{\"name\":\"Mesa\"},"
+                        + "\"materialDetails\":[{\"rawMaterialId\":10},{\"rawMaterialId\":11}]}",
+                write(suggestion, "product.name, materialDetails.rawMaterialId"));
+    }
+
+    @Test
+    void wholeObjectWhenThePathStopsAtIt() throws IOException {
+        Map<String, Object> suggestion = ordered("id", 1, "product", ordered("id", 2, "name", "Mesa"));
+
+        assertEquals("{\"product\":{\"id\":2,\"name\":\"Mesa\"}}", write(suggestion, "product"));
+    }
+
+    @Test
+    void wildcardMatchesAnyKey() throws IOException {
+        Map<String, Object> byId = ordered(
+                "10", ordered("product", ordered("code", "P10", "name", "Mesa"), "maxQuantity", 3),
+                "11", ordered("product", ordered("code", "P11", "name", "Cadeira"), "maxQuantity", 4));
+
+        assertEquals("{\"10\":{\"product\":{\"name\":\"Mesa\"}},\"11\":{\"product\":{\"name\":\"Cadeira\"}}}",
+                write(byId, "*.product.name"));
+    }
+
+    @Test
+    void nothingMatchedStillWritesValidJson() throws IOException {
+        assertEquals("{}", write(ordered("id", 1, "code", "P1"), "unknown"));
+        assertEquals("[{},{}]", write(List.of(ordered("id", 1), ordered("id", 2)), "unknown"));
+        assertEquals("[]", write(List.of(), "id"));
+    }
+
+    @Test
+    void blankSegmentsAreIgnored() {
+        assertTrue(FieldSetFilter.parse(" , ,.").isEmpty());
+    }
+
+    private String write(Object body, String fields) throws IOException {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(new SparseFieldsetValue(body, FieldSetFilter.parse(fields)), MediaType.APPLICATION_JSON, message);
+        return message.getBodyAsString();
+    }
+
+    private static Map<String, Object> ordered(Object... pairs) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            map.put((String) pairs[i], pairs[i + 1]);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,91 @@
+package com.autoflex.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class SparseFieldsetConvertersTest {
+
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    private final ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+    private final ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.smile().build();
+    private MockMvc mockMvc;
+
+    @RestController
+    static class SampleController {
+
+        // GET /sample
+        @GetMapping("/sample")
+        public Map<String, Object> sample() {
+            Map<String, Object> product = new LinkedHashMap<>();
+            product.put("id", 1);
+            product.put("code", "P1");
+            product.put("name", "Mesa");
+            return product;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new SampleController())
+                .setMessageConverters(
+                        new SparseFieldsetConverters.Json(Jackson2ObjectMapperBuilder.json().build()),
+                        new SparseFieldsetConverters.Cbor(cborMapper),
+                        new SparseFieldsetConverters.Smile(smileMapper))
+                .setControllerAdvice(new SparseFieldsetAdvice())
+                .build();
+    }
+
+    @Test
+    void jsonIsTheDefault() throws Exception {
+        mockMvc.perform(get("/sample"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(header().stringValues("Vary", "Accept"))
+                .andExpect(content().json("{\"id\":1,\"code\":\"P1\",\"name\":\"Mesa\"}", true));
+    }
+
+    @Test
+    void cborWhenAcceptedAndFieldsStillApply() throws Exception {
+        byte[] body = mockMvc.perform(get("/sample").param("fields", "id,code").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(Map.of("id", 1, "code", "P1"), cborMapper.readValue(body, Map.class));
+    }
+
+    @Test
+    void smileWhenAcceptedAndFieldsStillApply() throws Exception {
+        byte[] body = mockMvc.perform(get("/sample").param("fields", "name").accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(Map.of("name", "Mesa"), smileMapper.readValue(body, Map.class));
+    }
+
+    @Test
+    void higherQualityWins() throws Exception {
+        mockMvc.perform(get("/sample").header("Accept", "application/json;q=0.5, application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(SMILE));
+    }
+}
@@ -0,0 +1,141 @@
+package com.autoflex.config;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+/**
+ * Tamanho e tempo de serialização do payload de sugestões em JSON, CBOR e Smile,
+ * com e sem gzip e com fields=, passando pelos mesmos conversores da aplicação.
+ *
+ * Não roda no build normal:
+ * mvn test -Dtest=SuggestionsPayloadBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SuggestionsPayloadBenchmarkTest {
+
+    private static final int PRODUCTS = 2_000;
+    private static final int MATERIALS_PER_PRODUCT = 8;
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 50;
+
+    private static final String SPARSE_FIELDS = "product.id,product.code,maxQuantity,totalValue";
+
+    @Test
+    void comparesFormatsOnSuggestionsPayload() throws IOException {
+        List<Map<String, Object>> payload = suggestions();
+
+        Map<String, AbstractJackson2HttpMessageConverter> converters = new LinkedHashMap<>();
+        converters.put("json", new SparseFieldsetConverters.Json(Jackson2ObjectMapperBuilder.json().build()));
+        converters.put("cbor", new SparseFieldsetConverters.Cbor(Jackson2ObjectMapperBuilder.cbor().build()));
+        converters.put("smile", new SparseFieldsetConverters.Smile(Jackson2ObjectMapperBuilder.smile().build()));
+
+        Object sparse = new SparseFieldsetValue(payload, FieldSetFilter.parse(SPARSE_FIELDS));
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+
+        System.out.printf("%-14s %10s %10s %12s %12s%n", "formato", "bytes", "gzip", "ms/escrita", "ms/c/ gzip");
+        for (Map.Entry<String, AbstractJackson2HttpMessageConverter> entry : converters.entrySet()) {
+            for (boolean filtered : new boolean[] {false, true}) {
+                String name = entry.getKey() + (filtered ? "+fields" : "");
+                Object body = filtered ? sparse : payload;
+                AbstractJackson2HttpMessageConverter converter = entry.getValue();
+                MediaType mediaType = converter.getSupportedMediaTypes().get(0);
+
+                byte[] bytes = write(converter, body, mediaType);
+                byte[] gzipped = gzip(bytes);
+                double plainMillis = time(() -> write(converter, body, mediaType));
+                double gzipMillis = time(() -> gzip(write(converter, body, mediaType)));
+
+                sizes.put(name, bytes.length);
+                sizes.put(name + "+gzip", gzipped.length);
+                System.out.printf("%-14s %10d %10d %12.2f %12.2f%n",
+                        name, bytes.length, gzipped.length, plainMillis, gzipMillis);
+            }
+        }
+
+        assertTrue(sizes.get("smile") < sizes.get("json"));
+        assertTrue(sizes.get("cbor") < sizes.get("json"));
+        assertTrue(sizes.get("json+gzip") < sizes.get("json"));
+        assertTrue(sizes.get("json+fields") < sizes.get("json"));
+    }
+
+    // Mesma forma de ProductionService.computeSuggestions
+    private static List<Map<String, Object>> suggestions() {
+        Random random = new Random(42);
+        List<Map<String, Object>> suggestions = new ArrayList<>(PRODUCTS);
+        for (long id = 1; id <= PRODUCTS; id++) {
+            BigDecimal value = BigDecimal.valueOf(1_000 + random.nextInt(900_000), 2);
+            int maxQuantity = random.nextInt(500);
+
+            Map<String, Object> product = new LinkedHashMap<>();
+            product.put("id", id);
+            product.put("code", "PROD" + id);
+            product.put("name", "Produto de exemplo " + id);
+            product.put("value", value);
+
+            List<Map<String, Object>> materialDetails = new ArrayList<>(MATERIALS_PER_PRODUCT);
+            for (int i = 0; i < MATERIALS_PER_PRODUCT; i++) {
+                long rawMaterialId = 1 + random.nextInt(500);
+                Map<String, Object> detail = new LinkedHashMap<>();
+                detail.put("rawMaterialId", rawMaterialId);
+                detail.put("rawMaterialName", "Matéria-prima " + rawMaterialId);
+                detail.put("requiredQuantity", 1 + random.nextInt(20));
+                detail.put("available", random.nextInt(10_000));
+                materialDetails.add(detail);
+            }
+
+            Map<String, Object> suggestion = new LinkedHashMap<>();
+            suggestion.put("product", product);
+            suggestion.put("maxQuantity", maxQuantity);
+            suggestion.put("totalValue", value.multiply(BigDecimal.valueOf(maxQuantity)));
+            suggestion.put("materialCost", BigDecimal.valueOf(random.nextInt(500_000), 4));
+            suggestion.put("unitMargin", BigDecimal.valueOf(random.nextInt(500_000), 4));
+            suggestion.put("totalProfit", BigDecimal.valueOf(random.nextInt(50_000_000), 4));
+            suggestion.put("materialDetails", materialDetails);
+            suggestions.add(suggestion);
+        }
+        return suggestions;
+    }
+
+    private static byte[] write(AbstractJackson2HttpMessageConverter converter, Object body, MediaType mediaType)
+            throws IOException {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(body, mediaType, message);
+        return message.getBodyAsBytes();
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static double time(IoAction action) throws IOException {
+        for (int i = 0; i < WARMUP; i++) action.run();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) action.run();
+        return (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+    }
+
+    @FunctionalInterface
+    private interface IoAction {
+        Object run() throws IOException;
+    }
+}
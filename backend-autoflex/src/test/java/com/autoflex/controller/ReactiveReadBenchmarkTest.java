@@ -0,0 +1,195 @@
+package com.autoflex.controller;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compara o caminho MVC/JPA com o reativo (R2DBC) sob muitas requisições simultâneas:
+ * vazão, latência e o pico de conexões, threads e heap do servidor, amostrados em
+ * /actuator/metrics enquanto a carga roda.
+ *
+ * Roda contra uma instância já no ar, com autoflex.reactive.enabled=true (e de
+ * preferência autoflex.admission.enabled=false, senão parte das chamadas vira 503):
+ * mvn test -Dtest=ReactiveReadBenchmarkTest -Dbenchmark.url=http://localhost:8080
+ * Opcionais: -Dbenchmark.concurrency=200 -Dbenchmark.requests=20
+ */
+@EnabledIfSystemProperty(named = "benchmark.url", matches = ".+")
+class ReactiveReadBenchmarkTest {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    // [nome, caminho JPA, caminho reativo]
+    private static final String[][] SCENARIOS = {
+            {"produtos", "/products", "/reactive/products"},
+            {"sugestões", "/production/suggestions", "/reactive/production/suggestions"},
+    };
+
+    private static final String[] METRICS = {
+            "hikaricp.connections.active",
+            "hikaricp.connections.pending",
+            "r2dbc.pool.acquired",
+            "r2dbc.pool.pending",
+            "tomcat.threads.busy",
+            "jvm.threads.live",
+            "jvm.memory.used?tag=area:heap",
+    };
+
+    private final String baseUrl = System.getProperty("benchmark.url").replaceAll("/$", "");
+    private final int concurrency = Integer.getInteger("benchmark.concurrency", 200);
+    private final int requestsPerClient = Integer.getInteger("benchmark.requests", 20);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Test
+    void comparesBlockingAndReactiveReads() throws Exception {
+        System.out.printf("%d clientes simultâneos × %d requisições%n", concurrency, requestsPerClient);
+        for (String[] scenario : SCENARIOS) {
+            Result blocking = run(scenario[1], "application/json");
+            Result reactive = run(scenario[2], NDJSON);
+            print(scenario[0] + " (JPA)", blocking);
+            print(scenario[0] + " (R2DBC)", reactive);
+            assertTrue(blocking.succeeded() > 0, "nenhuma chamada a " + scenario[1] + " teve sucesso");
+            assertTrue(reactive.succeeded() > 0, "nenhuma chamada a " + scenario[2] + " teve sucesso");
+        }
+    }
+
+    private Result run(String path, String accept) throws Exception {
+        call(path, accept); // aquece a carga inicial dos caches e o pool
+
+        Map<String, Double> peaks = new ConcurrentHashMap<>();
+        ExecutorService sampler = Executors.newSingleThreadExecutor();
+        AtomicInteger sampling = new AtomicInteger(1);
+        sampler.submit(() -> {
+            while (sampling.get() == 1) {
+                for (String metric : METRICS) {
+                    Double value = metric(metric);
+                    if (value != null) peaks.merge(metric, value, Math::max);
+                }
+                Thread.sleep(100);
+            }
+            return null;
+        });
+
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int c = 0; c < concurrency; c++) {
+            clients.submit(() -> {
+                start.await();
+                for (int i = 0; i < requestsPerClient; i++) {
+                    long begin = System.nanoTime();
+                    int status;
+                    try {
+                        status = call(path, accept);
+                    } catch (Exception e) {
+                        status = -1;
+                    }
+                    latencies.add(System.nanoTime() - begin);
+                    if (status == 200) succeeded.incrementAndGet();
+                    else if (status == 503) rejected.incrementAndGet();
+                    else failed.incrementAndGet();
+                }
+                return null;
+            });
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        clients.shutdown();
+        clients.awaitTermination(10, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - begin;
+
+        sampling.set(0);
+        sampler.shutdown();
+        sampler.awaitTermination(5, TimeUnit.SECONDS);
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return new Result(succeeded.get(), rejected.get(), failed.get(), elapsed,
+                percentile(sorted, 50), percentile(sorted, 99), new LinkedHashMap<>(peaks));
+    }
+
+    // Corpo lido até o fim e descartado: para NDJSON isso consome o stream inteiro
+    private int call(String path, String accept) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Accept", accept)
+                .timeout(Duration.ofMinutes(1))
+                .GET()
+                .build();
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            body.transferTo(OutputStream.nullOutputStream());
+        }
+        return response.statusCode();
+    }
+
+    // null quando a métrica não existe nesta instância (ex.: sem R2DBC)
+    private Double metric(String name) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/metrics/" + name))
+                    .timeout(Duration.ofSeconds(2))
+                    .GET()
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) return null;
+            JsonNode measurements = objectMapper.readTree(response.body()).path("measurements");
+            return measurements.isEmpty() ? null : measurements.get(0).path("value").asDouble();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static double percentile(List<Long> sorted, int percentile) {
+        if (sorted.isEmpty()) return 0;
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index)) / 1_000_000.0;
+    }
+
+    private static void print(String name, Result result) {
+        double seconds = result.elapsedNanos() / 1_000_000_000.0;
+        System.out.printf("%-22s ok=%d 503=%d erro=%d  %.0f req/s  p50=%.1fms p99=%.1fms%n",
+                name, result.succeeded(), result.rejected(), result.failed(),
+                result.succeeded() / seconds, result.p50Millis(), result.p99Millis());
+        for (String metric : METRICS) {
+            Double peak = result.peaks().get(metric);
+            String value = peak == null ? "n/d"
+                    : metric.startsWith("jvm.memory") ? String.format("%.1f MB", peak / (1024 * 1024))
+                    : String.format("%.0f", peak);
+            System.out.printf("    pico %-32s %s%n", metric, value);
+        }
+    }
+
+    private record Result(int succeeded, int rejected, int failed, long elapsedNanos,
+                          double p50Millis, double p99Millis, Map<String, Double> peaks) {}
+}
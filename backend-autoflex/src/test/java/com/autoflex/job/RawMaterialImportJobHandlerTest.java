@@ -0,0 +1,87 @@
+package com.autoflex.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.autoflex.model.RawMaterial;
+import com.autoflex.service.RawMaterialService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class RawMaterialImportJobHandlerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private RawMaterialService rawMaterialService;
+    private RawMaterialImportJobHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        rawMaterialService = mock(RawMaterialService.class);
+        handler = new RawMaterialImportJobHandler(rawMaterialService);
+
+        RawMaterial existing = new RawMaterial("MP-01", "Aço", "kg", 40, new BigDecimal("12.50"));
+        existing.setId(7L);
+        when(rawMaterialService.findByCode("MP-01")).thenReturn(Optional.of(existing));
+        when(rawMaterialService.findByCode("MP-02")).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void updateLeavesAbsentFieldsNull() throws Exception {
+        Map<?, ?> result = run("{\"materials\": [{\"code\": \"MP-01\", \"name\": \"Aço inox\"}]}");
+
+        ArgumentCaptor<RawMaterial> material = ArgumentCaptor.forClass(RawMaterial.class);
+        verify(rawMaterialService).update(eq(7L), material.capture());
+        assertEquals("Aço inox", material.getValue().getName());
+        // null = manter o valor atual (RawMaterialService.update)
+        assertNull(material.getValue().getQuantity());
+        assertNull(material.getValue().getUnitPrice());
+        assertNull(material.getValue().getUnit());
+        assertEquals(1, result.get("updated"));
+    }
+
+    @Test
+    void insertRequiresQuantityAndUnitPrice() throws Exception {
+        Map<?, ?> result = run("{\"materials\": [{\"code\": \"MP-02\", \"name\": \"Cobre\", \"quantity\": 5}]}");
+
+        verify(rawMaterialService, never()).create(any());
+        assertEquals(1, result.get("failed"));
+    }
+
+    @Test
+    void insertDefaultsTheUnit() throws Exception {
+        run("{\"materials\": [{\"code\": \"MP-02\", \"name\": \"Cobre\", \"quantity\": 5, \"unitPrice\": 3.2}]}");
+
+        ArgumentCaptor<RawMaterial> material = ArgumentCaptor.forClass(RawMaterial.class);
+        verify(rawMaterialService).create(material.capture());
+        assertEquals("un", material.getValue().getUnit());
+        assertEquals(5, material.getValue().getQuantity());
+        assertEquals(new BigDecimal("3.2"), material.getValue().getUnitPrice());
+    }
+
+    @Test
+    void rejectsNonNumericQuantity() throws Exception {
+        Map<?, ?> result = run("{\"materials\": [{\"code\": \"MP-01\", \"name\": \"Aço\", \"quantity\": \"muito\"}]}");
+
+        verify(rawMaterialService, never()).update(any(), any());
+        assertEquals(1, result.get("failed"));
+    }
+
+    private Map<?, ?> run(String payload) throws Exception {
+        JsonNode json = objectMapper.readTree(payload);
+        return (Map<?, ?>) handler.execute(json, percent -> { });
+    }
+}
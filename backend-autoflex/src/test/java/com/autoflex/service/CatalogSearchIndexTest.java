@@ -0,0 +1,93 @@
+package com.autoflex.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CatalogSearchIndexTest {
+
+    private CatalogSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CatalogSearchIndex();
+        index.upsert(1L, "PAR-01", "Parafuso sextavado");
+        index.upsert(2L, "PAR", "Porca");
+        index.upsert(3L, "ARR-01", "Arruela para parafuso");
+        index.upsert(4L, "XYZ", "Parafina");
+    }
+
+    @Test
+    void ranksExactCodeThenCodeNameAndWordPrefixes() {
+        CatalogSearchIndex.Result result = index.search("par", 10);
+
+        assertEquals(List.of(2L, 1L, 4L, 3L), ids(result));
+        assertEquals(List.of(100, 80, 60, 50), scores(result));
+        assertEquals(4, result.total());
+        assertTrue(result.totalExact());
+    }
+
+    @Test
+    void limitKeepsOnlyTheBestHitsButCountsAll() {
+        CatalogSearchIndex.Result result = index.search("par", 2);
+
+        assertEquals(List.of(2L, 1L), ids(result));
+        assertEquals(4, result.total());
+    }
+
+    @Test
+    void toleratesOneTypoAndTiesByCode() {
+        CatalogSearchIndex.Result result = index.search("parafuzo", 10);
+
+        // "parafina" fica a 3 edições e não entra
+        assertEquals(List.of(3L, 1L), ids(result));
+        assertEquals(List.of(30, 30), scores(result));
+    }
+
+    @Test
+    void ignoresAccentsAndCase() {
+        index.upsert(5L, "ELT-01", "Eletrônico Avançado");
+
+        assertEquals(List.of(5L), ids(index.search("AVANCADO", 10)));
+    }
+
+    @Test
+    void concentratedEditsOnShortQueriesAreNotFound() {
+        // Duas edições em sete letras: menos da metade dos trigramas em comum
+        assertTrue(index.search("prafuzo", 10).hits().isEmpty());
+    }
+
+    @Test
+    void shortQueriesStopCountingAtTheCap() {
+        CatalogSearchIndex large = new CatalogSearchIndex();
+        for (int i = 0; i < CatalogSearchIndex.MAX_COUNTED + 1_000; i++) {
+            large.upsert((long) i, String.format("C%05d", i), "Item " + i);
+        }
+
+        CatalogSearchIndex.Result result = large.search("c", 3);
+
+        assertEquals(List.of(0L, 1L, 2L), ids(result));
+        assertEquals(CatalogSearchIndex.MAX_COUNTED, result.total());
+        assertFalse(result.totalExact());
+    }
+
+    @Test
+    void removedEntriesStopMatching() {
+        index.remove(2L);
+
+        assertEquals(List.of(1L, 4L, 3L), ids(index.search("par", 10)));
+    }
+
+    private static List<Long> ids(CatalogSearchIndex.Result result) {
+        return result.hits().stream().map(hit -> hit.entry().id()).toList();
+    }
+
+    private static List<Integer> scores(CatalogSearchIndex.Result result) {
+        return result.hits().stream().map(CatalogSearchIndex.Hit::score).toList();
+    }
+}
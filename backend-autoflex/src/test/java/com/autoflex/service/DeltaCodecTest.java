@@ -0,0 +1,76 @@
+package com.autoflex.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.autoflex.service.DeltaCodec.Sample;
+
+class DeltaCodecTest {
+
+    private static final long DAY = 1_700_000_000_000L - Math.floorMod(1_700_000_000_000L, 86_400_000L);
+
+    @Test
+    void roundTripsVarintBoundaries() {
+        // Intervalos de 0, 127 (1 byte), 128 (2 bytes), 16_384 (3 bytes) e quase um dia
+        List<Sample> samples = List.of(
+                new Sample(DAY, 10),
+                new Sample(DAY + 127, 11),
+                new Sample(DAY + 255, 12),
+                new Sample(DAY + 16_639, 13),
+                new Sample(DAY + 86_399_999L, 14));
+
+        assertEquals(samples, DeltaCodec.decode(DeltaCodec.encode(DAY, samples), DAY));
+    }
+
+    @Test
+    void roundTripsDropsAndNegativeValues() {
+        List<Sample> samples = List.of(
+                new Sample(DAY + 1, 500),
+                new Sample(DAY + 2, 0),
+                new Sample(DAY + 3, -1),
+                new Sample(DAY + 4, -1_000_000_000_000L),
+                new Sample(DAY + 5, 1_000_000_000_000L),
+                new Sample(DAY + 6, Long.MIN_VALUE),
+                new Sample(DAY + 7, Long.MAX_VALUE));
+
+        assertEquals(samples, DeltaCodec.decode(DeltaCodec.encode(DAY, samples), DAY));
+    }
+
+    @Test
+    void smallChangesTakeFewBytes() {
+        // Zigzag: -1 vira 1 e cabe em um byte, como +1
+        byte[] data = DeltaCodec.encode(DAY, List.of(new Sample(DAY + 60_000, 100), new Sample(DAY + 120_000, 99)));
+
+        // 60_000 ms = 3 bytes, 100 → zigzag 200 = 2 bytes; depois 3 bytes + 1 byte
+        assertEquals(9, data.length);
+    }
+
+    @Test
+    void appendingMatchesEncodingAtOnce() {
+        List<Sample> first = List.of(new Sample(DAY + 10, 5), new Sample(DAY + 20, 3));
+        List<Sample> second = List.of(new Sample(DAY + 20, 4), new Sample(DAY + 5_000, -2));
+
+        byte[] appended = DeltaCodec.append(DeltaCodec.encode(DAY, first), DAY + 20, 3, second);
+
+        assertArrayEquals(DeltaCodec.encode(DAY, List.of(first.get(0), first.get(1), second.get(0), second.get(1))),
+                appended);
+    }
+
+    @Test
+    void rejectsOutOfOrderSamples() {
+        assertThrows(IllegalArgumentException.class, () -> DeltaCodec.encode(DAY,
+                List.of(new Sample(DAY + 20, 1), new Sample(DAY + 10, 2))));
+        assertThrows(IllegalArgumentException.class, () -> DeltaCodec.append(new byte[0], DAY + 100, 0,
+                List.of(new Sample(DAY + 99, 1))));
+    }
+
+    @Test
+    void emptyBlockDecodesToNothing() {
+        assertEquals(List.of(), DeltaCodec.decode(new byte[0], DAY));
+    }
+}
@@ -0,0 +1,126 @@
+package com.autoflex.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.autoflex.event.CatalogChangeEvent;
+import com.autoflex.repository.ProductMaterialRepository;
+import com.autoflex.repository.ProductRepository;
+import com.autoflex.repository.RawMaterialRepository;
+import com.autoflex.service.ProductMaterialService.MaterialLine;
+
+class ProductMaterialServiceTest {
+
+    private static final String DELETE = "DELETE FROM product_materials WHERE product_id = ? AND raw_material_id = ?";
+    private static final String UPDATE =
+            "UPDATE product_materials SET required_quantity = ? WHERE product_id = ? AND raw_material_id = ?";
+    private static final String INSERT =
+            "INSERT INTO product_materials (product_id, raw_material_id, required_quantity) VALUES (?, ?, ?)";
+
+    private ProductMaterialRepository productMaterialRepository;
+    private ProductRepository productRepository;
+    private RawMaterialRepository rawMaterialRepository;
+    private JdbcTemplate jdbcTemplate;
+    private ApplicationEventPublisher eventPublisher;
+    private ProductMaterialService service;
+
+    @BeforeEach
+    void setUp() {
+        productMaterialRepository = mock(ProductMaterialRepository.class);
+        productRepository = mock(ProductRepository.class);
+        rawMaterialRepository = mock(RawMaterialRepository.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        service = new ProductMaterialService(productMaterialRepository, productRepository,
+                rawMaterialRepository, jdbcTemplate, eventPublisher);
+
+        when(productRepository.existsById(1L)).thenReturn(true);
+        when(rawMaterialRepository.findExistingIds(any())).thenAnswer(invocation ->
+                new ArrayList<>(invocation.<Collection<Long>>getArgument(0)));
+    }
+
+    @Test
+    void insertsUpdatesAndDeletesInOneCall() {
+        // Atual: 10→2, 11→5, 12→1; desejado: 10→2 (igual), 11→7 (muda), 13→4 (nova); 12 sai
+        when(productMaterialRepository.findBomLinesByProductId(1L)).thenReturn(List.of(
+                new Object[] {10L, 2}, new Object[] {11L, 5}, new Object[] {12L, 1}));
+
+        Map<String, Object> result = service.replaceMaterials(1L, List.of(
+                new MaterialLine(10L, 2), new MaterialLine(11L, 7), new MaterialLine(13L, 4)));
+
+        assertEquals(1, result.get("inserted"));
+        assertEquals(1, result.get("updated"));
+        assertEquals(1, result.get("deleted"));
+        assertBatch(DELETE, new Object[] {1L, 12L});
+        assertBatch(UPDATE, new Object[] {7, 1L, 11L});
+        assertBatch(INSERT, new Object[] {1L, 13L, 4});
+        verify(eventPublisher).publishEvent(new CatalogChangeEvent(
+                CatalogChangeEvent.Entity.PRODUCT_MATERIAL, 1L, CatalogChangeEvent.Action.UPDATED));
+    }
+
+    @Test
+    void unchangedBomWritesNothing() {
+        when(productMaterialRepository.findBomLinesByProductId(1L)).thenReturn(List.<Object[]>of(new Object[] {10L, 2}));
+
+        service.replaceMaterials(1L, List.of(new MaterialLine(10L, 2)));
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void emptyListClearsTheBom() {
+        when(productMaterialRepository.findBomLinesByProductId(1L)).thenReturn(List.of(
+                new Object[] {10L, 2}, new Object[] {11L, 5}));
+
+        Map<String, Object> result = service.replaceMaterials(1L, List.of());
+
+        assertEquals(2, result.get("deleted"));
+        assertEquals(0, result.get("inserted"));
+    }
+
+    @Test
+    void rejectsDuplicatesAndInvalidQuantities() {
+        assertThrows(IllegalArgumentException.class, () -> service.replaceMaterials(1L, List.of(
+                new MaterialLine(10L, 2), new MaterialLine(10L, 3))));
+        assertThrows(IllegalArgumentException.class, () -> service.replaceMaterials(1L, List.of(
+                new MaterialLine(10L, 0))));
+    }
+
+    @Test
+    void unknownProductOrMaterialIsNotFound() {
+        assertThrows(NotFoundException.class, () -> service.replaceMaterials(2L, List.of()));
+
+        when(rawMaterialRepository.findExistingIds(any())).thenReturn(List.of(10L));
+        assertThrows(NotFoundException.class, () -> service.replaceMaterials(1L, List.of(
+                new MaterialLine(10L, 1), new MaterialLine(99L, 1))));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void assertBatch(String sql, Object[] expectedRow) {
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(sql), rows.capture());
+        assertEquals(1, rows.getValue().size());
+        assertArrayEquals(expectedRow, rows.getValue().get(0));
+    }
+}
@@ -0,0 +1,119 @@
+package com.autoflex.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SingleFlight singleFlight = new SingleFlight(registry, Duration.ofMillis(100));
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void followerSharesTheLeaderResult() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() ->
+                singleFlight.execute("test", "k", () -> {
+                    executions.incrementAndGet();
+                    leaderStarted.countDown();
+                    await(release);
+                    return "líder";
+                }), executor);
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(() ->
+                singleFlight.execute("test", "k", () -> {
+                    executions.incrementAndGet();
+                    return "seguidor";
+                }), executor);
+        // O seguidor precisa se registrar antes de o líder terminar
+        while (followerCalls() < 1) Thread.sleep(5);
+        release.countDown();
+
+        assertEquals("líder", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("líder", follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void followerRunsAloneWhenTheLeaderIsStuck() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() ->
+                singleFlight.execute("test", "k", () -> {
+                    leaderStarted.countDown();
+                    await(release);
+                    return "líder";
+                }), executor);
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+        long start = System.nanoTime();
+        String result = singleFlight.execute("test", "k", () -> "seguidor");
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("seguidor", result);
+        assertTrue(waitedMillis >= 100, "esperou só " + waitedMillis + " ms");
+        assertEquals(1, followerCalls());
+
+        release.countDown();
+        assertEquals("líder", leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void leaderFailureReachesTheFollower() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() ->
+                singleFlight.execute("test", "k", () -> {
+                    leaderStarted.countDown();
+                    await(release);
+                    throw new IllegalArgumentException("falhou");
+                }), executor);
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(() ->
+                singleFlight.execute("test", "k", () -> "seguidor"), executor);
+        while (followerCalls() < 1) Thread.sleep(5);
+        release.countDown();
+
+        assertTrue(leader.handle((value, error) -> error.getCause() instanceof IllegalArgumentException)
+                .get(5, TimeUnit.SECONDS));
+        assertTrue(follower.handle((value, error) -> error.getCause() instanceof IllegalArgumentException)
+                .get(5, TimeUnit.SECONDS));
+    }
+
+    private double followerCalls() {
+        return registry.get("autoflex.singleflight.calls").tag("role", "follower").counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -10,9 +10,13 @@ CREATE TABLE raw_materials (
     name VARCHAR(100) NOT NULL,
     quantity INTEGER NOT NULL DEFAULT 0,
     unit VARCHAR(20) DEFAULT 'un',
-    unit_price DECIMAL(10,2) DEFAULT 0.00
+    unit_price DECIMAL(10,2) DEFAULT 0.00,
+    reorder_point INTEGER NOT NULL DEFAULT 10
 );
 
+-- Índice parcial: só as matérias-primas em alerta de reposição entram no índice
+CREATE INDEX idx_raw_materials_low_stock ON raw_materials (id) WHERE quantity <= reorder_point;
+
 -- Tabela de produtos
 CREATE TABLE products (
     id SERIAL PRIMARY KEY,
@@ -32,6 +36,153 @@ CREATE TABLE product_materials (
     UNIQUE(product_id, raw_material_id)
 );
 
+-- Índice reverso da BOM: quais produtos usam cada matéria-prima
+CREATE INDEX idx_product_materials_raw_material ON product_materials (raw_material_id);
+
+-- Plantas e estoque por planta (uma linha por planta e matéria-prima)
+CREATE TABLE sites (
+    id SERIAL PRIMARY KEY,
+    code VARCHAR(50) UNIQUE NOT NULL,
+    name VARCHAR(100) NOT NULL
+);
+
+CREATE TABLE site_stocks (
+    id BIGSERIAL PRIMARY KEY,
+    site_id BIGINT NOT NULL REFERENCES sites(id) ON DELETE CASCADE,
+    raw_material_id BIGINT NOT NULL REFERENCES raw_materials(id) ON DELETE CASCADE,
+    quantity INTEGER NOT NULL DEFAULT 0 CHECK (quantity >= 0),
+    UNIQUE(site_id, raw_material_id)
+);
+
+-- Com linhas por planta, raw_materials.quantity é a soma delas (mantida pela aplicação).
+-- Bancos que já tinham estoque por planta: alinhar o global uma vez
+UPDATE raw_materials rm SET quantity = s.total
+FROM (SELECT raw_material_id, SUM(quantity) AS total FROM site_stocks GROUP BY raw_material_id) s
+WHERE s.raw_material_id = rm.id AND rm.quantity <> s.total;
+
+-- Histórico de estoque (STOCK, por matéria-prima) e capacidade (CAPACITY, por produto)
+-- Blocos diários com as amostras codificadas em delta
+CREATE TABLE stock_history_buckets (
+    id BIGSERIAL PRIMARY KEY,
+    series_type VARCHAR(20) NOT NULL,
+    series_id BIGINT NOT NULL,
+    bucket_start BIGINT NOT NULL,
+    sample_count INTEGER NOT NULL DEFAULT 0,
+    last_timestamp BIGINT NOT NULL,
+    last_value BIGINT NOT NULL DEFAULT 0,
+    data BYTEA NOT NULL,
+    version BIGINT,
+    UNIQUE(series_type, series_id, bucket_start)
+);
+
+-- Agregados de minuto, hora e dia
+CREATE TABLE stock_history_rollups (
+    id BIGSERIAL PRIMARY KEY,
+    series_type VARCHAR(20) NOT NULL,
+    series_id BIGINT NOT NULL,
+    resolution VARCHAR(10) NOT NULL,
+    bucket_start BIGINT NOT NULL,
+    min_value BIGINT NOT NULL,
+    max_value BIGINT NOT NULL,
+    last_value BIGINT NOT NULL,
+    -- Integral valor × ms entre first_timestamp e last_timestamp (média ponderada pelo tempo)
+    weighted_sum BIGINT NOT NULL DEFAULT 0,
+    first_timestamp BIGINT NOT NULL,
+    last_timestamp BIGINT NOT NULL,
+    sample_count INTEGER NOT NULL DEFAULT 0,
+    version BIGINT,
+    UNIQUE(series_type, series_id, resolution, bucket_start)
+);
+
+-- Fila de jobs em segundo plano (workers reservam com FOR UPDATE SKIP LOCKED)
+CREATE TABLE jobs (
+    id BIGSERIAL PRIMARY KEY,
+    type VARCHAR(50) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'QUEUED',
+    payload TEXT,
+    result TEXT,
+    error TEXT,
+    progress INTEGER NOT NULL DEFAULT 0,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    max_attempts INTEGER NOT NULL DEFAULT 3,
+    run_after TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    locked_by VARCHAR(100),
+    locked_at TIMESTAMP WITH TIME ZONE,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_jobs_queue ON jobs(status, run_after, id);
+
+-- Notificação de alterações do catálogo entre instâncias (LISTEN/NOTIFY, PostgreSQL 13+),
+-- usada com autoflex.catalog-notify.enabled=true; mesmos triggers de
+-- backend-autoflex/src/main/resources/db/catalog-notify.sql
+CREATE TABLE IF NOT EXISTS catalog_changes (
+    seq BIGSERIAL PRIMARY KEY,
+    entity VARCHAR(30) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    action VARCHAR(10) NOT NULL,
+    changed_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    -- xid: leitura em ordem de commit; origin: application_name da instância que alterou
+    xid xid8 NOT NULL DEFAULT pg_current_xact_id(),
+    origin VARCHAR(64)
+);
+
+CREATE INDEX IF NOT EXISTS idx_catalog_changes_changed_at ON catalog_changes (changed_at);
+CREATE INDEX IF NOT EXISTS idx_catalog_changes_xid ON catalog_changes (xid, seq);
+
+CREATE OR REPLACE FUNCTION autoflex_catalog_notify() RETURNS trigger AS $$
+DECLARE
+    rec RECORD;
+    v_entity TEXT;
+    v_id BIGINT;
+    v_action TEXT;
+BEGIN
+    IF TG_OP = 'DELETE' THEN rec := OLD; ELSE rec := NEW; END IF;
+    v_action := CASE TG_OP WHEN 'INSERT' THEN 'CREATED' WHEN 'UPDATE' THEN 'UPDATED' ELSE 'DELETED' END;
+
+    IF TG_TABLE_NAME = 'products' THEN
+        v_entity := 'PRODUCT'; v_id := rec.id;
+    ELSIF TG_TABLE_NAME = 'raw_materials' THEN
+        v_entity := 'RAW_MATERIAL'; v_id := rec.id;
+    ELSIF TG_TABLE_NAME = 'product_materials' THEN
+        -- Linhas da BOM são notificadas como alteração do produto dono
+        v_entity := 'PRODUCT_MATERIAL'; v_id := rec.product_id; v_action := 'UPDATED';
+    ELSE
+        v_entity := 'SITE_STOCK'; v_id := rec.site_id; v_action := 'UPDATED';
+    END IF;
+
+    INSERT INTO catalog_changes (entity, entity_id, action, origin)
+    VALUES (v_entity, v_id, v_action, NULLIF(current_setting('application_name', true), ''));
+    -- Payloads iguais na mesma transação são entregues uma única vez pelo PostgreSQL
+    PERFORM pg_notify('autoflex_catalog', v_entity || ':' || v_id);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS autoflex_catalog_notify ON products;
+CREATE TRIGGER autoflex_catalog_notify AFTER INSERT OR UPDATE OR DELETE ON products
+    FOR EACH ROW EXECUTE FUNCTION autoflex_catalog_notify();
+
+DROP TRIGGER IF EXISTS autoflex_catalog_notify ON raw_materials;
+CREATE TRIGGER autoflex_catalog_notify AFTER INSERT OR UPDATE OR DELETE ON raw_materials
+    FOR EACH ROW EXECUTE FUNCTION autoflex_catalog_notify();
+
+DROP TRIGGER IF EXISTS autoflex_catalog_notify ON product_materials;
+CREATE TRIGGER autoflex_catalog_notify AFTER INSERT OR UPDATE OR DELETE ON product_materials
+    FOR EACH ROW EXECUTE FUNCTION autoflex_catalog_notify();
+
+DROP TRIGGER IF EXISTS autoflex_catalog_notify ON site_stocks;
+CREATE TRIGGER autoflex_catalog_notify AFTER INSERT OR UPDATE OR DELETE ON site_stocks
+    FOR EACH ROW EXECUTE FUNCTION autoflex_catalog_notify();
+
+-- Opcional: índices de trigramas para busca por similaridade direto no PostgreSQL
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX idx_products_name_trgm ON products USING gin (name gin_trgm_ops);
+CREATE INDEX idx_products_code_trgm ON products USING gin (code gin_trgm_ops);
+CREATE INDEX idx_raw_materials_name_trgm ON raw_materials USING gin (name gin_trgm_ops);
+CREATE INDEX idx_raw_materials_code_trgm ON raw_materials USING gin (code gin_trgm_ops);
+
 -- Insira alguns dados de exemplo (opcional)
 INSERT INTO raw_materials (code, name, quantity, unit_price) VALUES
 ('MAT001', 'Aço Inoxidável', 150, 25.00),
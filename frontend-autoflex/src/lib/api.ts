@@ -3,6 +3,11 @@ import { Product, ProductionSuggestion, RawMaterial } from "@/types";
 // @/lib/api.ts
 const API_URL = "http://localhost:8080";
 
+// Envia o cookie de sessão (af-last-write) em toda chamada: depois de uma escrita,
+// as leituras seguintes vão para o banco primário e enxergam a alteração
+export const apiFetch = (input: RequestInfo | URL, init: RequestInit = {}) =>
+  fetch(input, { credentials: "include", ...init });
+
 // Tipos para o Spring Boot 
 interface SpringRawMaterial {
   id: number;
@@ -24,6 +29,9 @@ interface SpringProductionSuggestion {
   product: SpringProduct;
   maxQuantity: number;
   totalValue: number;
+  materialCost?: number;
+  unitMargin?: number;
+  totalProfit?: number;
   materialDetails?: Array<{
     rawMaterialId: number;
     rawMaterialName: string;
@@ -53,12 +61,47 @@ const convertSpringToProduct = (spring: SpringProduct): Product => ({
   productMaterials: [],
 });
 
+// Resultado paginado das buscas /products/search e /raw-materials/search
+export interface SearchPage {
+  content: Array<{ id: number; code: string; name: string; score: number }>;
+  page: number;
+  size: number;
+  // Piso quando totalExact é falso: o backend para de contar em 5.000 itens
+  total: number;
+  totalExact: boolean;
+}
+
+const searchCatalog = async (
+  path: string,
+  query: string,
+  page = 0,
+  size = 20,
+): Promise<SearchPage> => {
+  const params = new URLSearchParams({
+    q: query,
+    page: String(page),
+    size: String(size),
+  });
+  const response = await apiFetch(`${API_URL}${path}?${params}`);
+  if (!response.ok) {
+    const error = await response.text();
+    throw new Error(`Failed to search: ${error}`);
+  }
+  return response.json();
+};
+
 // API para Produtos 
+const toMaterialLines = (composition: Product["composition"]) =>
+  composition.map((item) => ({
+    rawMaterialId: item.rawMaterialId,
+    requiredQuantity: item.quantityRequired,
+  }));
+
 export const productApi = {
   getAll: async (): Promise<Product[]> => {
     console.log("Fetching products from:", `${API_URL}/products`);
     try {
-      const response = await fetch(`${API_URL}/products`);
+      const response = await apiFetch(`${API_URL}/products`);
       if (!response.ok) {
         const error = await response.text();
         throw new Error(`Failed to fetch products: ${error}`);
@@ -76,10 +119,13 @@ export const productApi = {
     }
   },
 
+  search: (query: string, page?: number, size?: number) =>
+    searchCatalog("/products/search", query, page, size),
+
   getById: async (id: string): Promise<Product> => {
     console.log("Fetching product:", id);
     try {
-      const response = await fetch(`${API_URL}/products/${id}`);
+      const response = await apiFetch(`${API_URL}/products/${id}`);
       if (!response.ok) {
         const error = await response.text();
         throw new Error(`Failed to fetch product: ${error}`);
@@ -108,7 +154,7 @@ export const productApi = {
       value: productData.value,
     };
 
-    const response = await fetch(`${API_URL}/products`, {
+    const response = await apiFetch(`${API_URL}/products`, {
       method: "POST",
       headers: { "Content-Type": "application/json" },
       body: JSON.stringify(springData),
@@ -120,7 +166,19 @@ export const productApi = {
     }
 
     const createdProduct: SpringProduct = await response.json();
-    return convertSpringToProduct(createdProduct);
+
+    // A composição vai inteira em um único PUT, não uma chamada por matéria-prima
+    if (productData.composition?.length) {
+      await productApi.replaceMaterials(
+        String(createdProduct.id),
+        toMaterialLines(productData.composition),
+      );
+    }
+
+    return {
+      ...convertSpringToProduct(createdProduct),
+      composition: productData.composition ?? [],
+    };
   },
 
   update: async (
@@ -134,7 +192,7 @@ export const productApi = {
     if (productData.name !== undefined) springData.name = productData.name;
     if (productData.value !== undefined) springData.value = productData.value;
 
-    const response = await fetch(`${API_URL}/products/${id}`, {
+    const response = await apiFetch(`${API_URL}/products/${id}`, {
       method: "PUT",
       headers: { "Content-Type": "application/json" },
       body: JSON.stringify(springData),
@@ -146,12 +204,21 @@ export const productApi = {
     }
 
     const updatedProduct: SpringProduct = await response.json();
-    return convertSpringToProduct(updatedProduct);
+
+    // Composição enviada = BOM desejada; o backend aplica só a diferença
+    if (productData.composition !== undefined) {
+      await productApi.replaceMaterials(id, toMaterialLines(productData.composition));
+    }
+
+    return {
+      ...convertSpringToProduct(updatedProduct),
+      composition: productData.composition ?? [],
+    };
   },
 
   delete: async (id: string): Promise<void> => {
     console.log("Deleting product:", id);
-    const response = await fetch(`${API_URL}/products/${id}`, {
+    const response = await apiFetch(`${API_URL}/products/${id}`, {
       method: "DELETE",
     });
 
@@ -174,7 +241,7 @@ export const productApi = {
 
     const url = `${API_URL}/products/${productId}/materials?rawMaterialId=${rawMaterialId}&requiredQuantity=${quantity}`;
 
-    const response = await fetch(url, {
+    const response = await apiFetch(url, {
       method: "POST",
       headers: { "Content-Type": "application/json" },
     });
@@ -185,6 +252,29 @@ export const productApi = {
     }
   },
 
+  replaceMaterials: async (
+    productId: string,
+    materials: Array<{ rawMaterialId: string; requiredQuantity: number }>,
+  ): Promise<void> => {
+    console.log("Replacing product materials:", { productId, materials });
+
+    const response = await apiFetch(`${API_URL}/products/${productId}/materials`, {
+      method: "PUT",
+      headers: { "Content-Type": "application/json" },
+      body: JSON.stringify(
+        materials.map((m) => ({
+          rawMaterialId: parseInt(m.rawMaterialId),
+          requiredQuantity: m.requiredQuantity,
+        })),
+      ),
+    });
+
+    if (!response.ok) {
+      const error = await response.text();
+      throw new Error(`Failed to replace materials: ${error}`);
+    }
+  },
+
   removeMaterial: async (
     productId: string,
     rawMaterialId: string,
@@ -193,7 +283,7 @@ export const productApi = {
       productId,
       rawMaterialId,
     });
-    const response = await fetch(
+    const response = await apiFetch(
       `${API_URL}/products/${productId}/materials/${rawMaterialId}`,
       {
         method: "DELETE",
@@ -212,7 +302,7 @@ export const rawMaterialApi = {
   getAll: async (): Promise<RawMaterial[]> => {
     console.log("Fetching raw materials from:", `${API_URL}/raw-materials`);
     try {
-      const response = await fetch(`${API_URL}/raw-materials`);
+      const response = await apiFetch(`${API_URL}/raw-materials`);
       if (!response.ok) {
         const error = await response.text();
         console.error("Failed to fetch raw materials:", error);
@@ -254,7 +344,7 @@ export const rawMaterialApi = {
       unitPrice: 0.0, // Valor padrão
     };
 
-    const response = await fetch(`${API_URL}/raw-materials`, {
+    const response = await apiFetch(`${API_URL}/raw-materials`, {
       method: "POST",
       headers: { "Content-Type": "application/json" },
       body: JSON.stringify(springData),
@@ -282,7 +372,7 @@ export const rawMaterialApi = {
     if (materialData.stockQuantity !== undefined)
       springData.quantity = materialData.stockQuantity;
 
-    const response = await fetch(`${API_URL}/raw-materials/${id}`, {
+    const response = await apiFetch(`${API_URL}/raw-materials/${id}`, {
       method: "PUT",
       headers: { "Content-Type": "application/json" },
       body: JSON.stringify(springData),
@@ -299,7 +389,7 @@ export const rawMaterialApi = {
 
   delete: async (id: string): Promise<void> => {
     console.log("Deleting raw material:", id);
-    const response = await fetch(`${API_URL}/raw-materials/${id}`, {
+    const response = await apiFetch(`${API_URL}/raw-materials/${id}`, {
       method: "DELETE",
     });
 
@@ -309,11 +399,38 @@ export const rawMaterialApi = {
     }
   },
 
+  search: (query: string, page?: number, size?: number) =>
+    searchCatalog("/raw-materials/search", query, page, size),
+
+  getAlerts: async (): Promise<
+    Array<{
+      id: number;
+      code: string;
+      name: string;
+      quantity: number;
+      reorderPoint: number;
+      shortage: number;
+      blockedProducts: number;
+    }>
+  > => {
+    try {
+      const response = await apiFetch(`${API_URL}/raw-materials/alerts`);
+      if (!response.ok) {
+        console.error("Failed to fetch stock alerts:", response.status);
+        return [];
+      }
+      return await response.json();
+    } catch (error) {
+      console.error("Error in rawMaterialApi.getAlerts:", error);
+      return [];
+    }
+  },
+
   updateStock: async (id: string, quantity: number): Promise<RawMaterial> => {
     console.log("Updating stock:", id, quantity);
     const url = `${API_URL}/raw-materials/${id}/stock?quantity=${quantity}`;
 
-    const response = await fetch(url, {
+    const response = await apiFetch(url, {
       method: "PATCH",
       headers: { "Content-Type": "application/json" },
     });
@@ -329,6 +446,36 @@ export const rawMaterialApi = {
 };
 
 
+export interface BottleneckMaterial {
+  rawMaterialId: number;
+  code: string;
+  name: string;
+  available: number;
+  boundProducts: number;
+  soleConstraintProducts: number;
+  coBindingProducts: number;
+  blockedValue: number;
+  marginalValue: number;
+  stockForNextUnit: number | null;
+  topProducts: Array<{
+    productId: number;
+    code: string;
+    name: string;
+    maxQuantity: number;
+    coBinding: boolean;
+    nextConstraintMaterialId?: number;
+    nextConstraintQuantity?: number;
+    extraStockToNextConstraint?: number;
+    blockedValue: number;
+  }>;
+}
+
+export interface BottleneckAnalysis {
+  catalogVersion: number;
+  analyzedProducts: number;
+  materials: BottleneckMaterial[];
+}
+
 export const productionApi = {
   getSuggestions: async (): Promise<ProductionSuggestion[]> => {
     console.log(
@@ -337,7 +484,7 @@ export const productionApi = {
     );
 
     try {
-      const response = await fetch(`${API_URL}/production/suggestions`);
+      const response = await apiFetch(`${API_URL}/production/suggestions`);
 
       if (!response.ok) {
         console.error("Error fetching suggestions:", response.status);
@@ -394,7 +541,7 @@ export const productionApi = {
     try {
       const url = `${API_URL}/production/simulate`;
 
-      const response = await fetch(url, {
+      const response = await apiFetch(url, {
         method: "POST",
         headers: {
           "Content-Type": "application/json",
@@ -438,13 +585,109 @@ export const productionApi = {
       };
     }
   },
+
+  // Matérias-primas que travam a produção, ordenadas por valor bloqueado
+  getBottlenecks: async (): Promise<BottleneckAnalysis | null> => {
+    try {
+      const response = await apiFetch(`${API_URL}/production/bottlenecks`);
+      if (!response.ok) {
+        console.error("Error fetching bottlenecks:", response.status);
+        return null;
+      }
+      return await response.json();
+    } catch (error) {
+      console.error("Error in productionApi.getBottlenecks:", error);
+      return null;
+    }
+  },
+};
+
+
+export interface DashboardSummary {
+  catalogVersion: number;
+  totalProducts: number;
+  totalRawMaterials: number;
+  producibleProducts: number;
+  totalProducibleUnits: number;
+  totalProductionValue: number;
+  totalStockUnits: number;
+  inventoryValue: number;
+  lowStockCount: number;
+}
+
+export const dashboardApi = {
+  // O navegador revalida com If-None-Match; sem mudanças no catálogo a resposta é um 304 vazio
+  getSummary: async (): Promise<DashboardSummary | null> => {
+    try {
+      const response = await apiFetch(`${API_URL}/dashboard/summary`, {
+        cache: "no-cache",
+      });
+      if (!response.ok) {
+        console.error("Error fetching dashboard summary:", response.status);
+        return null;
+      }
+      return await response.json();
+    } catch (error) {
+      console.error("Error in dashboardApi.getSummary:", error);
+      return null;
+    }
+  },
 };
 
 
+export interface BackgroundJob {
+  id: number;
+  type: string;
+  status: "QUEUED" | "RUNNING" | "SUCCEEDED" | "FAILED";
+  progress: number;
+  attempts: number;
+  maxAttempts: number;
+  payload?: unknown;
+  result?: unknown;
+  error?: string | null;
+  createdAt: string;
+  updatedAt: string;
+}
+
+export const jobApi = {
+  // Enfileira e retorna na hora (202); acompanhe com jobApi.get
+  enqueue: async (type: string, payload?: unknown): Promise<BackgroundJob | null> => {
+    try {
+      const response = await apiFetch(`${API_URL}/jobs`, {
+        method: "POST",
+        headers: { "Content-Type": "application/json" },
+        body: JSON.stringify({ type, payload }),
+      });
+      if (!response.ok) {
+        console.error("Error enqueuing job:", response.status);
+        return null;
+      }
+      return await response.json();
+    } catch (error) {
+      console.error("Error in jobApi.enqueue:", error);
+      return null;
+    }
+  },
+
+  get: async (id: number): Promise<BackgroundJob | null> => {
+    try {
+      const response = await apiFetch(`${API_URL}/jobs/${id}`, { cache: "no-store" });
+      if (!response.ok) {
+        console.error(`Error fetching job ${id}:`, response.status);
+        return null;
+      }
+      return await response.json();
+    } catch (error) {
+      console.error("Error in jobApi.get:", error);
+      return null;
+    }
+  },
+};
+
 export const healthApi = {
   check: async (): Promise<{ status: string; message: string }> => {
     try {
-      const response = await fetch(`${API_URL}/health`);
+      const response = await apiFetch(`${API_URL}/health`);
       if (!response.ok) {
         return {
           status: "ERROR",
@@ -477,7 +720,7 @@ export const testApiConnection = async () => {
 
     // Teste 2: Raw Materials
     console.log("2. Testando raw materials...");
-    const rawResponse = await fetch(`${API_URL}/raw-materials`);
+    const rawResponse = await apiFetch(`${API_URL}/raw-materials`);
     if (rawResponse.ok) {
       const rawData = await rawResponse.json();
       console.log(` Raw Materials: ${rawData.length} itens`);
@@ -488,7 +731,7 @@ export const testApiConnection = async () => {
 
     // Teste 3: Products
     console.log("3. Testando products...");
-    const productsResponse = await fetch(`${API_URL}/products`);
+    const productsResponse = await apiFetch(`${API_URL}/products`);
     if (productsResponse.ok) {
       const productsData = await productsResponse.json();
       console.log(` Products: ${productsData.length} itens`);
@@ -499,7 +742,7 @@ export const testApiConnection = async () => {
 
     // Teste 4: Production Suggestions
     console.log("4. Testando production suggestions...");
-    const prodResponse = await fetch(`${API_URL}/production/suggestions`);
+    const prodResponse = await apiFetch(`${API_URL}/production/suggestions`);
     if (prodResponse.ok) {
       const prodData = await prodResponse.json();
       console.log(`Production Suggestions: ${prodData.length} itens`);
@@ -33,6 +33,9 @@ import {
   rawMaterialApi,
   productionApi,
   healthApi,
+  dashboardApi,
+  apiFetch,
+  type DashboardSummary,
 } from "@/lib/api";
 
 // Importar dados mock para fallback
@@ -77,6 +80,12 @@ export default function Dashboard() {
   const [connectionTestResults, setConnectionTestResults] = useState<any>({});
   const [useMockData, setUseMockData] = useState(false);
   const [mockSuggestions, setMockSuggestions] = useState<any[]>([]);
+  // Alertas calculados no backend (ponto de reposição por matéria-prima)
+  const [stockAlerts, setStockAlerts] = useState<
+    Awaited<ReturnType<typeof rawMaterialApi.getAlerts>>
+  >([]);
+  // Totais agregados no backend (GET /dashboard/summary, revalidado por ETag)
+  const [summary, setSummary] = useState<DashboardSummary | null>(null);
 
  
   useEffect(() => {
@@ -113,7 +122,7 @@ export default function Dashboard() {
     try {
       // Teste 2: Raw Materials
       console.log("2. Testando raw materials...");
-      const rawResponse = await fetch("http://localhost:8080/raw-materials");
+      const rawResponse = await apiFetch("http://localhost:8080/raw-materials");
       results.rawMaterials = {
         status: rawResponse.ok ? "success" : "error",
         statusCode: rawResponse.status,
@@ -132,7 +141,7 @@ export default function Dashboard() {
     try {
       // Teste 3: Products
       console.log("3. Testando products...");
-      const productsResponse = await fetch("http://localhost:8080/products");
+      const productsResponse = await apiFetch("http://localhost:8080/products");
       results.products = {
         status: productsResponse.ok ? "success" : "error",
         statusCode: productsResponse.status,
@@ -195,7 +204,7 @@ export default function Dashboard() {
       // Testar conexão com API Spring Boot primeiro
       console.log("Testando conexão com health endpoint...");
 
-      const healthResponse = await fetch("http://localhost:8080/health", {
+      const healthResponse = await apiFetch("http://localhost:8080/health", {
         method: "GET",
         headers: {
           Accept: "application/json",
@@ -260,6 +269,10 @@ export default function Dashboard() {
         setLastError((prev) => prev + "Erro em matérias-primas. ");
       }
 
+      // getAlerts e getSummary já devolvem []/null em caso de falha
+      setStockAlerts(await rawMaterialApi.getAlerts());
+      setSummary(await dashboardApi.getSummary());
+
       try {
         await fetchProductionSuggestions();
         successCount++;
@@ -357,6 +370,20 @@ export default function Dashboard() {
       };
     }
 
+    // Usar o resumo calculado no backend; as listas só servem de reserva se ele falhar
+    if (summary) {
+      const data = {
+        productsCount: summary.totalProducts,
+        rawMaterialsCount: summary.totalRawMaterials,
+        totalProductionValue: summary.totalProductionValue,
+        totalProducts: summary.totalProducibleUnits,
+        hasData: true,
+        timestamp: Date.now(),
+      };
+      cachedDashboardData = data;
+      return data;
+    }
+
     // Usar dados REAIS da API
     const suggestions = productionSuggestions || [];
     const totalProductionValue = suggestions.reduce(
@@ -390,6 +417,7 @@ export default function Dashboard() {
     isInitialLoad,
     useMockData,
     mockSuggestions,
+    summary,
   ]);
 
   const dashboardData = getDashboardData();
@@ -415,9 +443,12 @@ export default function Dashboard() {
     return useMockData ? mockSuggestions : productionSuggestions || [];
   };
 
-  const lowStockMaterials = getCurrentRawMaterials().filter((rm) => {
-    return rm.stockQuantity <= 10;
-  });
+  // Sem backend (dados mock) não há alertas; mantém o limite fixo antigo
+  const alertIds = new Set(stockAlerts.map((alert) => String(alert.id)));
+  const isLowStock = (rm: { id: string | number; stockQuantity: number }) =>
+    useMockData ? rm.stockQuantity <= 10 : alertIds.has(String(rm.id));
+
+  const lowStockMaterials = getCurrentRawMaterials().filter(isLowStock);
   const hasLowStock = lowStockMaterials.length > 0;
 
   // Verificar se temos dados para mostrar
@@ -848,7 +879,7 @@ export default function Dashboard() {
                             .slice(0, 5)
                             .map((rm) => {
                               const stockLevel =
-                                rm.stockQuantity <= 10
+                                isLowStock(rm)
                                   ? "critical"
                                   : rm.stockQuantity <= 50
                                     ? "low"
@@ -957,7 +988,7 @@ export default function Dashboard() {
                             {getCurrentRawMaterials().map((rm) => {
                               // Calcular cor baseada no nível de estoque
                               const getProgressColor = () => {
-                                if (rm.stockQuantity <= 10) return "bg-red-500";
+                                if (isLowStock(rm)) return "bg-red-500";
                                 if (rm.stockQuantity <= 50)
                                   return "bg-yellow-500";
                                 return "bg-green-500";